@@ -0,0 +1,81 @@
+package com.talha.microservices.inventory.config;
+
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import com.talha.microservices.inventory.sharding.ShardRoutingDataSource;
+import com.talha.microservices.inventory.sharding.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@Slf4j
+public class ShardingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "inventory.sharding.enabled", havingValue = "true")
+    public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties shardingProperties, DataSourceProperties dataSourceProperties) {
+        List<ShardingProperties.Shard> shards = shardingProperties.getShards();
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(shards.get(i).getUrl())
+                    .username(shards.get(i).getUsername())
+                    .password(shards.get(i).getPassword())
+                    .build();
+            dataSource.setPoolName("inventory-shard-" + i);
+            targets.put(i, dataSource);
+        }
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(targets.get(0));
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "inventory.sharding.enabled", havingValue = "true")
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "inventory.sharding.enabled", havingValue = "true")
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> shardRoutingDataSource.getResolvedDataSources().forEach((shard, dataSource) -> {
+            Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .dataSource(dataSource)
+                    .load()
+                    .migrate();
+            reserveIdRange((Integer) shard, dataSource);
+        });
+    }
+
+    private void reserveIdRange(int shard, DataSource dataSource) {
+        long firstId = ((long) shard << ShardRouter.ID_RANGE_BITS) + 1;
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from t_inventory", Long.class);
+        if (shard > 0 && maxId != null && maxId < firstId) {
+            jdbcTemplate.execute("alter table t_inventory auto_increment = " + firstId);
+            log.info("Inventory shard {} allocates ids from {}", shard, firstId);
+        }
+    }
+}
@@ -1,19 +1,36 @@
 package com.talha.microservices.inventory.controller;
 
+import com.talha.microservices.inventory.dto.BulkImportMode;
+import com.talha.microservices.inventory.dto.BulkImportResponse;
+import com.talha.microservices.inventory.dto.InventoryChangeEvent;
 import com.talha.microservices.inventory.dto.InventoryRequest;
 import com.talha.microservices.inventory.dto.InventoryResponse;
+import com.talha.microservices.inventory.dto.StockLineRequest;
+import com.talha.microservices.inventory.dto.StockLevelEvent;
+import com.talha.microservices.inventory.dto.StockLineResponse;
+import com.talha.microservices.inventory.dto.WarehouseStockRequest;
+import com.talha.microservices.inventory.dto.WarehouseStockResponse;
+import com.talha.microservices.inventory.service.BulkInventoryService;
 import com.talha.microservices.inventory.service.InventoryService;
+import com.talha.microservices.inventory.service.StockStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Set;
 
 
 @RestController
@@ -21,7 +38,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class InventoryController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final InventoryService inventoryService;
+    private final BulkInventoryService bulkInventoryService;
+    private final StockStreamService stockStreamService;
 
     @Operation(summary = "Yeni Envanter Ekleme Metodu")
     @ApiResponses(value = {
@@ -58,8 +80,61 @@ public class InventoryController {
                             schema = @Schema(implementation = InventoryResponse.class))})})
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<InventoryResponse> getAllInventory(){
-        return inventoryService.getAllInventory();
+    public List<InventoryResponse> getAllInventory(@RequestParam(required = false) Long afterId,
+                                                   @RequestParam(required = false) Integer limit){
+        if (afterId == null && limit == null) {
+            return inventoryService.getAllInventory();
+        }
+        return inventoryService.getInventoryPage(afterId, limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @Operation(summary = "Tüm Envanterleri NDJSON Olarak Akıtma Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Envanterler satır satır akıtıldı",
+                    content = {@Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = InventoryResponse.class))})})
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportInventory() {
+        StreamingResponseBody body = inventoryService::exportInventory;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @Operation(summary = "Stok Değişikliklerini Server-Sent Events ile Yayınlama Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stok seviyeleri değiştikçe SKU bazında birleştirilerek gönderilir",
+                    content = {@Content(mediaType = "text/event-stream",
+                            schema = @Schema(implementation = StockLevelEvent.class))})})
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStock(@RequestParam(required = false) Set<String> skuCode) {
+        return stockStreamService.subscribe(skuCode);
+    }
+
+    @Operation(summary = "Envanter Değişikliklerini Sıra Numarasına Göre Listeleme Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Verilen sıra numarasından sonraki değişiklikler getirildi",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = InventoryChangeEvent.class))})})
+    @GetMapping("/changes")
+    @ResponseStatus(HttpStatus.OK)
+    public List<InventoryChangeEvent> getChanges(@RequestParam(defaultValue = "0") int shard,
+                                                 @RequestParam(defaultValue = "0") long afterSequence,
+                                                 @RequestParam(required = false) Integer limit) {
+        return inventoryService.getChanges(shard, afterSequence, limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @Operation(summary = "Toplu Envanter Yükleme ve Stok Düzeltme Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Dosya işlendi, hatalı satırlar raporda listelendi",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkImportResponse.class))})})
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    @ResponseStatus(HttpStatus.OK)
+    public BulkImportResponse bulkImport(@RequestParam(defaultValue = "UPSERT") BulkImportMode mode,
+                                         @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                         InputStream body) throws IOException {
+        return bulkInventoryService.importStock(body, MediaType.parseMediaType(contentType), mode);
     }
 
     @Operation(summary = "Stok Durumunu Kontrol Etme Metodu")
@@ -73,6 +148,32 @@ public class InventoryController {
         return inventoryService.isInStock(skuCode, quantity);
     }
 
+    @Operation(summary = "Toplu Stok Durumunu Kontrol Etme Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stok durumları başarıyla kontrol edildi",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = StockLineResponse.class))})})
+    @PostMapping("/stock/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<StockLineResponse> checkStock(@RequestBody List<StockLineRequest> lines) {
+        return inventoryService.checkStock(lines);
+    }
+
+    @Operation(summary = "Toplu Stok Azaltma Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tüm satırların stoğu başarıyla azaltıldı",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = StockLineResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Yetersiz stok, hiçbir satır azaltılmadı",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = StockLineResponse.class))})})
+    @PostMapping("/reduce/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<StockLineResponse> reduceStock(@RequestBody List<StockLineRequest> lines,
+                                               @RequestParam(required = false) String requestId) {
+        return inventoryService.reduceStock(lines, requestId);
+    }
+
     @Operation(summary = "Stok Azaltma Metodu")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Stok başarıyla azaltıldı",
@@ -81,8 +182,35 @@ public class InventoryController {
                     content = @Content)})
     @PostMapping("/reduce")
     @ResponseStatus(HttpStatus.OK)
-    public void reduceStock(@RequestParam String skuCode, @RequestParam Integer quantity) {
-        inventoryService.reduceStock(skuCode, quantity);
+    public void reduceStock(@RequestParam String skuCode, @RequestParam Integer quantity,
+                            @RequestParam(required = false) String requestId) {
+        inventoryService.reduceStock(skuCode, quantity, requestId);
+    }
+
+    @Operation(summary = "Depo Bazında Stokları Listeleme Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Depo stokları başarıyla listelendi",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = WarehouseStockResponse.class))})})
+    @GetMapping("/{skuCode}/warehouses")
+    @ResponseStatus(HttpStatus.OK)
+    public List<WarehouseStockResponse> getWarehouseStock(@PathVariable String skuCode) {
+        return inventoryService.getWarehouseStock(skuCode);
+    }
+
+    @Operation(summary = "Depo Stoğunu Güncelleme Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Depo stoğu başarıyla güncellendi",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = WarehouseStockResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Rezerve edilmiş stoğun altına inilemez",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Envanter bulunamadı",
+                    content = @Content)})
+    @PutMapping("/warehouse-stock")
+    @ResponseStatus(HttpStatus.OK)
+    public List<WarehouseStockResponse> setWarehouseStock(@RequestBody WarehouseStockRequest warehouseStockRequest) {
+        return inventoryService.setWarehouseStock(warehouseStockRequest);
     }
 
     @Operation(summary = "Envanteri Silme Metodu")
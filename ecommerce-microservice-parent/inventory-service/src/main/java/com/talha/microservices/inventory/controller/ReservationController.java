@@ -0,0 +1,68 @@
+package com.talha.microservices.inventory.controller;
+
+import com.talha.microservices.inventory.dto.ReservationRequest;
+import com.talha.microservices.inventory.dto.ReservationResponse;
+import com.talha.microservices.inventory.service.ReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/inventory/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+
+    private final ReservationService reservationService;
+
+    @Operation(summary = "Stok Rezervasyonu Oluşturma Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Stok başarıyla rezerve edildi",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ReservationResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "Yetersiz stok",
+                    content = @Content),
+            @ApiResponse(responseCode = "404", description = "Envanter bulunamadı",
+                    content = @Content)})
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ResponseEntity<ReservationResponse> reserve(@RequestBody ReservationRequest reservationRequest) {
+        ReservationResponse reservationResponse = reservationService.reserve(reservationRequest);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservationResponse);
+    }
+
+    @Operation(summary = "Rezervasyonu Onaylama Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rezervasyon başarıyla onaylandı",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ReservationResponse.class))}),
+            @ApiResponse(responseCode = "404", description = "Rezervasyon bulunamadı",
+                    content = @Content),
+            @ApiResponse(responseCode = "409", description = "Rezervasyon aktif değil",
+                    content = @Content)})
+    @PostMapping("/{reservationId}/confirm")
+    @ResponseStatus(HttpStatus.OK)
+    public ReservationResponse confirm(@PathVariable String reservationId) {
+        return reservationService.confirm(reservationId);
+    }
+
+    @Operation(summary = "Rezervasyonu Serbest Bırakma Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rezervasyon başarıyla serbest bırakıldı",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ReservationResponse.class))}),
+            @ApiResponse(responseCode = "404", description = "Rezervasyon bulunamadı",
+                    content = @Content),
+            @ApiResponse(responseCode = "409", description = "Rezervasyon aktif değil",
+                    content = @Content)})
+    @PostMapping("/{reservationId}/release")
+    @ResponseStatus(HttpStatus.OK)
+    public ReservationResponse release(@PathVariable String reservationId) {
+        return reservationService.release(reservationId);
+    }
+}
@@ -0,0 +1,6 @@
+package com.talha.microservices.inventory.dto;
+
+public enum BulkImportMode {
+    UPSERT,
+    ADJUST
+}
@@ -0,0 +1,7 @@
+package com.talha.microservices.inventory.dto;
+
+import java.util.List;
+
+public record BulkImportResponse(BulkImportMode mode, long linesRead, long rowsApplied, long failedLines,
+                                 List<BulkLineError> errors, long elapsedMillis, double rowsPerSecond) {
+}
@@ -0,0 +1,4 @@
+package com.talha.microservices.inventory.dto;
+
+public record BulkLineError(long lineNumber, String skuCode, String message) {
+}
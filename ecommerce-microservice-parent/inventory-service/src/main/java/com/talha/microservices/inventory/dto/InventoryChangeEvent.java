@@ -0,0 +1,8 @@
+package com.talha.microservices.inventory.dto;
+
+import com.talha.microservices.inventory.model.InventoryEventType;
+
+import java.time.Instant;
+
+public record InventoryChangeEvent(Long eventId, Long sequence, String skuCode, InventoryEventType type, Integer quantity, Instant occurredAt) {
+}
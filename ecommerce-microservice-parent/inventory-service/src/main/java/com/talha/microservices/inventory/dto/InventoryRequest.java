@@ -1,4 +1,11 @@
 package com.talha.microservices.inventory.dto;
 
-public record InventoryRequest(String skuCode, Integer quantity) {
+/**
+ * {@code warehouseId} is where added stock is booked, the default warehouse when omitted.
+ */
+public record InventoryRequest(String skuCode, Integer quantity, String warehouseId) {
+
+    public InventoryRequest(String skuCode, Integer quantity) {
+        this(skuCode, quantity, null);
+    }
 }
@@ -0,0 +1,4 @@
+package com.talha.microservices.inventory.dto;
+
+public record ReservationRequest(String skuCode, Integer quantity, Long ttlSeconds) {
+}
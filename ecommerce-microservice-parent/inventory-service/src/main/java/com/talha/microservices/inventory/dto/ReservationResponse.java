@@ -0,0 +1,8 @@
+package com.talha.microservices.inventory.dto;
+
+import com.talha.microservices.inventory.model.ReservationStatus;
+
+import java.time.Instant;
+
+public record ReservationResponse(String reservationId, String skuCode, Integer quantity, ReservationStatus status, Instant expiresAt) {
+}
@@ -0,0 +1,4 @@
+package com.talha.microservices.inventory.dto;
+
+public record StockLevelEvent(String skuCode, Integer availableQuantity, boolean inStock) {
+}
@@ -0,0 +1,4 @@
+package com.talha.microservices.inventory.dto;
+
+public record StockLineRequest(String skuCode, Integer quantity) {
+}
@@ -0,0 +1,4 @@
+package com.talha.microservices.inventory.dto;
+
+public record StockLineResponse(String skuCode, Integer quantity, Integer availableQuantity, boolean inStock) {
+}
@@ -0,0 +1,4 @@
+package com.talha.microservices.inventory.dto;
+
+public record WarehouseStockRequest(String skuCode, String warehouseId, Integer quantity) {
+}
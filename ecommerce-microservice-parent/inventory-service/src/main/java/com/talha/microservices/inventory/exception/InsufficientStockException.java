@@ -0,0 +1,17 @@
+package com.talha.microservices.inventory.exception;
+
+import com.talha.microservices.inventory.dto.StockLineResponse;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class InsufficientStockException extends RuntimeException {
+
+    private final List<StockLineResponse> failedLines;
+
+    public InsufficientStockException(String message, List<StockLineResponse> failedLines) {
+        super(message);
+        this.failedLines = failedLines;
+    }
+}
@@ -0,0 +1,7 @@
+package com.talha.microservices.inventory.exception;
+
+public class InvalidReservationStateException extends RuntimeException {
+    public InvalidReservationStateException(String message) {
+        super(message);
+    }
+}
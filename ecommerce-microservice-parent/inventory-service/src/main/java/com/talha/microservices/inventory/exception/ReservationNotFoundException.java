@@ -0,0 +1,7 @@
+package com.talha.microservices.inventory.exception;
+
+public class ReservationNotFoundException extends RuntimeException {
+    public ReservationNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.talha.microservices.inventory.model;
+
+/**
+ * How {@code reduceStock} picks the warehouse a quantity is taken from when several hold the SKU.
+ */
+public enum AllocationStrategy {
+    /** Warehouse with the most stock first. */
+    MOST_STOCK,
+    /** Warehouses in the order of {@code inventory.allocation.warehouse-priority}, unlisted ones last. */
+    PRIORITY,
+    /** Any warehouse that can cover the whole quantity, picked at random so stock is drawn down evenly. */
+    SPREAD
+}
@@ -5,9 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
 @Table(name = "t_inventory")
+@DynamicUpdate
 @Data
 @Builder
 @AllArgsConstructor
@@ -19,5 +21,10 @@ public class Inventory {
     private Long id;
     private String skuCode;
     private Integer quantity;
+    @Builder.Default
+    private Integer reservedQuantity = 0;
 
+    public int getAvailableQuantity() {
+        return (quantity == null ? 0 : quantity) - (reservedQuantity == null ? 0 : reservedQuantity);
+    }
 }
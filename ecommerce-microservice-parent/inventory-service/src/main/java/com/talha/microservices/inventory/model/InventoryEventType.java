@@ -0,0 +1,19 @@
+package com.talha.microservices.inventory.model;
+
+/**
+ * Kind of change recorded in the outbox. For CREATED, UPDATED and IMPORTED the event quantity is the new
+ * absolute quantity; for REDUCED it is the amount taken from stock (negative when a hot SKU flush returned
+ * more than it sold), for ADJUSTED the signed amount added to stock, and for the reservation events the
+ * held amount.
+ */
+public enum InventoryEventType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    IMPORTED,
+    ADJUSTED,
+    REDUCED,
+    RESERVED,
+    RESERVATION_CONFIRMED,
+    RESERVATION_RELEASED
+}
@@ -0,0 +1,30 @@
+package com.talha.microservices.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "t_inventory_outbox")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String skuCode;
+    @Enumerated(EnumType.STRING)
+    private InventoryEventType eventType;
+    private Integer quantity;
+    private Instant createdAt;
+    private Long publishedSeq;
+    private Instant publishedAt;
+    private Instant claimedUntil;
+}
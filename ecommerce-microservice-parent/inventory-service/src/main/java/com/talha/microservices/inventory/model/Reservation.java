@@ -0,0 +1,31 @@
+package com.talha.microservices.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "t_inventory_reservation")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class Reservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String reservationId;
+    private String skuCode;
+    private Integer quantity;
+    // true when the hold was taken from a hot SKU counter and is already deducted from quantity
+    private boolean stockDeducted;
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+    private Instant expiresAt;
+    private Instant createdAt;
+}
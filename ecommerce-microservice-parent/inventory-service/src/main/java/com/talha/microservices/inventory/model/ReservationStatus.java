@@ -0,0 +1,8 @@
+package com.talha.microservices.inventory.model;
+
+public enum ReservationStatus {
+    ACTIVE,
+    CONFIRMED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,36 @@
+package com.talha.microservices.inventory.outbox;
+
+import com.talha.microservices.inventory.dto.InventoryChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "inventory.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final int capacity;
+    private final Deque<InventoryChangeEvent> events = new ArrayDeque<>();
+
+    public InMemoryOutboxSink(@Value("${inventory.outbox.memory-capacity}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<InventoryChangeEvent> batch) {
+        for (InventoryChangeEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    public synchronized List<InventoryChangeEvent> events() {
+        return List.copyOf(events);
+    }
+}
@@ -0,0 +1,14 @@
+package com.talha.microservices.inventory.outbox;
+
+import com.talha.microservices.inventory.dto.InventoryChangeEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the outbox relay. Events arrive in publish order; a batch that throws is retried,
+ * so implementations must tolerate receiving the same event more than once.
+ */
+public interface OutboxSink {
+
+    void publish(List<InventoryChangeEvent> events);
+}
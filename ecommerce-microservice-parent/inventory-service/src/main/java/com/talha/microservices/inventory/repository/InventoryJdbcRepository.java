@@ -0,0 +1,192 @@
+package com.talha.microservices.inventory.repository;
+
+import com.talha.microservices.inventory.dto.InventoryResponse;
+import com.talha.microservices.inventory.model.InventoryEventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+@Repository
+@RequiredArgsConstructor
+public class InventoryJdbcRepository {
+
+    public record StockLevel(int quantity, int reservedQuantity) {
+    }
+
+    public record HotSkuJournalEntry(long id, String skuCode, int quantity) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void decrementStock(Map<String, Integer> quantitiesBySkuCode) {
+        List<Object[]> batchArgs = new ArrayList<>(quantitiesBySkuCode.size());
+        quantitiesBySkuCode.forEach((skuCode, quantity) -> batchArgs.add(new Object[]{quantity, skuCode}));
+        jdbcTemplate.batchUpdate("update t_inventory set quantity = quantity - ? where sku_code = ?", batchArgs);
+    }
+
+    /**
+     * Inserts or overwrites every {@code (skuCode, quantity)} pair with a single multi-row statement. An
+     * existing row keeps its quantity where the new one would drop below its reserved quantity.
+     */
+    public void upsertStock(Map<String, Integer> quantitiesBySkuCode) {
+        if (quantitiesBySkuCode.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("insert into t_inventory (sku_code, quantity) values ");
+        List<Object> args = new ArrayList<>(quantitiesBySkuCode.size() * 2);
+        quantitiesBySkuCode.forEach((skuCode, quantity) -> {
+            sql.append(args.isEmpty() ? "(?, ?)" : ", (?, ?)");
+            args.add(skuCode);
+            args.add(quantity);
+        });
+        sql.append(" as new on duplicate key update quantity = if(new.quantity >= t_inventory.reserved_quantity, new.quantity, t_inventory.quantity)");
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    public Map<String, StockLevel> findStockLevelsForUpdate(Collection<String> skuCodes) {
+        if (skuCodes.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, StockLevel> levels = new HashMap<>();
+        jdbcTemplate.query(
+                "select sku_code, quantity, reserved_quantity from t_inventory where sku_code in (" + String.join(", ", Collections.nCopies(skuCodes.size(), "?")) + ") order by sku_code for update",
+                resultSet -> {
+                    levels.put(resultSet.getString("sku_code"), new StockLevel(resultSet.getInt("quantity"), resultSet.getInt("reserved_quantity")));
+                },
+                skuCodes.toArray());
+        return levels;
+    }
+
+    public void deleteByIds(List<Long> ids) {
+        jdbcTemplate.batchUpdate("delete from t_inventory where id = ?", ids.stream().map(id -> new Object[]{id}).toList());
+    }
+
+    /**
+     * Applies signed deltas in one JDBC batch. A delta that would take the available quantity below zero,
+     * or that targets an unknown SKU, updates nothing and reports {@code 0} at its position.
+     */
+    public int[] adjustStock(List<String> skuCodes, List<Integer> deltas) {
+        List<Object[]> batchArgs = new ArrayList<>(skuCodes.size());
+        for (int i = 0; i < skuCodes.size(); i++) {
+            batchArgs.add(new Object[]{deltas.get(i), skuCodes.get(i), deltas.get(i)});
+        }
+        return jdbcTemplate.batchUpdate(
+                "update t_inventory set quantity = quantity + ? where sku_code = ? and quantity - reserved_quantity + ? >= 0",
+                batchArgs);
+    }
+
+    public void insertOutboxEvents(InventoryEventType eventType, Map<String, Integer> quantitiesBySkuCode, Instant createdAt) {
+        List<Object[]> batchArgs = new ArrayList<>(quantitiesBySkuCode.size());
+        Timestamp timestamp = Timestamp.from(createdAt);
+        quantitiesBySkuCode.forEach((skuCode, quantity) -> batchArgs.add(new Object[]{skuCode, eventType.name(), quantity, timestamp}));
+        jdbcTemplate.batchUpdate(
+                "insert into t_inventory_outbox (sku_code, event_type, quantity, created_at) values (?, ?, ?, ?)",
+                batchArgs);
+    }
+
+    public int deletePublishedOutboxEvents(Instant publishedBefore, long belowSequence, int limit) {
+        return jdbcTemplate.update("delete from t_inventory_outbox where published_at < ? and published_seq < ? limit ?",
+                Timestamp.from(publishedBefore), belowSequence, limit);
+    }
+
+    /**
+     * @return {@code false} if the key was already present
+     */
+    public boolean insertAppliedRequest(byte[] requestKey, Instant appliedAt) {
+        return jdbcTemplate.update("insert ignore into t_inventory_applied_request (request_key, applied_at) values (?, ?)",
+                requestKey, Timestamp.from(appliedAt)) == 1;
+    }
+
+    public int deleteAppliedRequests(Instant appliedBefore, int limit) {
+        return jdbcTemplate.update("delete from t_inventory_applied_request where applied_at < ? limit ?",
+                Timestamp.from(appliedBefore), limit);
+    }
+
+    /**
+     * Records signed hot SKU reductions, positive for sold and negative for returned stock, in the current
+     * transaction.
+     */
+    public void insertHotSkuJournal(Map<String, Integer> quantitiesBySkuCode, Instant createdAt) {
+        List<Object[]> batchArgs = new ArrayList<>(quantitiesBySkuCode.size());
+        Timestamp timestamp = Timestamp.from(createdAt);
+        quantitiesBySkuCode.forEach((skuCode, quantity) -> batchArgs.add(new Object[]{skuCode, quantity, timestamp}));
+        jdbcTemplate.batchUpdate("insert into t_inventory_hot_sku_journal (sku_code, quantity, created_at) values (?, ?, ?)", batchArgs);
+    }
+
+    /**
+     * Locks up to {@code limit} committed journal entries, skipping those still being written or claimed by
+     * another flush. {@code skuCode} restricts the claim to one SKU when not {@code null}.
+     */
+    public List<HotSkuJournalEntry> claimHotSkuJournal(String skuCode, int limit) {
+        RowMapper<HotSkuJournalEntry> mapper = (resultSet, rowNum) -> new HotSkuJournalEntry(resultSet.getLong("id"),
+                resultSet.getString("sku_code"), resultSet.getInt("quantity"));
+        if (skuCode == null) {
+            return jdbcTemplate.query("select id, sku_code, quantity from t_inventory_hot_sku_journal order by id limit ? for update skip locked",
+                    mapper, limit);
+        }
+        return jdbcTemplate.query("select id, sku_code, quantity from t_inventory_hot_sku_journal where sku_code = ? order by id limit ? for update skip locked",
+                mapper, skuCode, limit);
+    }
+
+    public int sumHotSkuJournal(String skuCode) {
+        Integer sum = jdbcTemplate.queryForObject("select coalesce(sum(quantity), 0) from t_inventory_hot_sku_journal where sku_code = ?",
+                Integer.class, skuCode);
+        return sum == null ? 0 : sum;
+    }
+
+    public void deleteHotSkuJournal(List<Long> ids) {
+        jdbcTemplate.batchUpdate("delete from t_inventory_hot_sku_journal where id = ?", ids.stream().map(id -> new Object[]{id}).toList());
+    }
+
+    /**
+     * Reads the whole table over a forward-only MySQL streaming result set, handing each row to
+     * {@code consumer} as it arrives instead of buffering the result in the driver.
+     */
+    public void streamAll(Consumer<InventoryResponse> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "select id, sku_code, quantity from t_inventory order by id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, resultSet -> {
+            consumer.accept(new InventoryResponse(resultSet.getLong("id"), resultSet.getString("sku_code"),
+                    resultSet.getObject("quantity", Integer.class)));
+        });
+    }
+
+    /**
+     * Streams {@code (skuCode, availableQuantity)} for every row, like {@link #streamAll(Consumer)}.
+     */
+    public void streamAvailableQuantities(ObjIntConsumer<String> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "select sku_code, quantity - reserved_quantity as available from t_inventory",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, resultSet -> {
+            consumer.accept(resultSet.getString("sku_code"), resultSet.getInt("available"));
+        });
+    }
+
+    public List<String> findSkuCodesChangedAfter(long publishedSeq) {
+        return jdbcTemplate.queryForList(
+                "select distinct sku_code from t_inventory_outbox where published_seq > ? or published_seq is null",
+                String.class, publishedSeq);
+    }
+}
@@ -1,11 +1,53 @@
 package com.talha.microservices.inventory.repository;
 
 import com.talha.microservices.inventory.model.Inventory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     boolean existsBySkuCodeAndQuantityIsGreaterThanEqual(String skuCode, Integer quantity);
+    boolean existsBySkuCode(String skuCode);
     Optional<Inventory> findBySkuCode(String skuCode);
+    List<Inventory> findBySkuCodeIn(Collection<String> skuCodes);
+    List<Inventory> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @Query("select i.skuCode from Inventory i where i.id = :id")
+    Optional<String> findSkuCodeById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Inventory i where i.id = :id")
+    Optional<Inventory> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Inventory i where i.skuCode in :skuCodes order by i.skuCode")
+    List<Inventory> findBySkuCodeInForUpdate(@Param("skuCodes") Collection<String> skuCodes);
+
+    @Modifying
+    @Query("update Inventory i set i.quantity = i.quantity - :quantity where i.skuCode = :skuCode and i.quantity - i.reservedQuantity >= :quantity")
+    int decrementStock(@Param("skuCode") String skuCode, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("update Inventory i set i.quantity = i.quantity + :quantity where i.skuCode = :skuCode")
+    int incrementStock(@Param("skuCode") String skuCode, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("update Inventory i set i.reservedQuantity = i.reservedQuantity + :quantity where i.skuCode = :skuCode and i.quantity - i.reservedQuantity >= :quantity")
+    int reserveStock(@Param("skuCode") String skuCode, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("update Inventory i set i.reservedQuantity = i.reservedQuantity - :quantity where i.skuCode = :skuCode")
+    int releaseReservedStock(@Param("skuCode") String skuCode, @Param("quantity") Integer quantity);
+
+    @Modifying
+    @Query("update Inventory i set i.quantity = i.quantity - :quantity, i.reservedQuantity = i.reservedQuantity - :quantity where i.skuCode = :skuCode")
+    int confirmReservedStock(@Param("skuCode") String skuCode, @Param("quantity") Integer quantity);
 }
@@ -0,0 +1,41 @@
+package com.talha.microservices.inventory.repository;
+
+import com.talha.microservices.inventory.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.LockOptions;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks unpublished events that are not leased to another relay, skipping rows other relays hold.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JAKARTA_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+    @Query("select e from OutboxEvent e where e.publishedAt is null and (e.claimedUntil is null or e.claimedUntil <= :now) order by e.id")
+    List<OutboxEvent> findClaimableForUpdate(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.publishedAt = :publishedAt, e.claimedUntil = null where e.id in :ids")
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") Instant publishedAt);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = null where e.id in :ids")
+    int releaseClaim(@Param("ids") List<Long> ids);
+
+    @Query("select coalesce(max(e.publishedSeq), 0) from OutboxEvent e")
+    long findMaxPublishedSeq();
+
+    List<OutboxEvent> findByPublishedSeqGreaterThanOrderByPublishedSeqAsc(Long afterSeq, Pageable pageable);
+}
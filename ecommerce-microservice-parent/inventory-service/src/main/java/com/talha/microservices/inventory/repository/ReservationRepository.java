@@ -0,0 +1,32 @@
+package com.talha.microservices.inventory.repository;
+
+import com.talha.microservices.inventory.model.Reservation;
+import com.talha.microservices.inventory.model.ReservationStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Reservation r where r.reservationId = :reservationId")
+    Optional<Reservation> findByReservationIdForUpdate(@Param("reservationId") String reservationId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Reservation r where r.reservationId in :reservationIds and r.status = :status order by r.id")
+    List<Reservation> findByReservationIdInAndStatusForUpdate(@Param("reservationIds") Collection<String> reservationIds,
+                                                              @Param("status") ReservationStatus status);
+
+    @Query("select r.reservationId from Reservation r where r.status = :status and r.expiresAt < :expiresBefore order by r.expiresAt")
+    List<String> findReservationIdsByStatusAndExpiresAtBefore(@Param("status") ReservationStatus status,
+                                                              @Param("expiresBefore") Instant expiresBefore,
+                                                              Pageable pageable);
+}
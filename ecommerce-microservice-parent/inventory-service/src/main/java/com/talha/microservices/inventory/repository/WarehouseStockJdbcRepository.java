@@ -0,0 +1,102 @@
+package com.talha.microservices.inventory.repository;
+
+import com.talha.microservices.inventory.dto.WarehouseStockResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class WarehouseStockJdbcRepository {
+
+    public record WarehouseStockRow(long id, String skuCode, String warehouseId, int quantity) {
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<WarehouseStockRow> findBySkuCodes(Collection<String> skuCodes, boolean forUpdate) {
+        return jdbcTemplate.query(
+                "select id, sku_code, warehouse_id, quantity from t_inventory_warehouse_stock where sku_code in (:skuCodes) order by sku_code, id"
+                        + (forUpdate ? " for update" : ""),
+                new MapSqlParameterSource("skuCodes", skuCodes),
+                (resultSet, rowNum) -> new WarehouseStockRow(resultSet.getLong("id"), resultSet.getString("sku_code"),
+                        resultSet.getString("warehouse_id"), resultSet.getInt("quantity")));
+    }
+
+    public List<WarehouseStockResponse> findBySkuCode(String skuCode) {
+        return jdbcTemplate.query(
+                "select sku_code, warehouse_id, quantity from t_inventory_warehouse_stock where sku_code = :skuCode order by warehouse_id",
+                new MapSqlParameterSource("skuCode", skuCode),
+                (resultSet, rowNum) -> new WarehouseStockResponse(resultSet.getString("sku_code"),
+                        resultSet.getString("warehouse_id"), resultSet.getInt("quantity")));
+    }
+
+    /**
+     * Takes {@code quantities[i]} from row {@code ids[i]} only where the row still holds that much; returns
+     * the per-row update counts.
+     */
+    public int[] tryDecrement(List<Long> ids, List<Integer> quantities) {
+        MapSqlParameterSource[] batchArgs = new MapSqlParameterSource[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            batchArgs[i] = new MapSqlParameterSource("id", ids.get(i)).addValue("quantity", quantities.get(i));
+        }
+        return jdbcTemplate.batchUpdate(
+                "update t_inventory_warehouse_stock set quantity = quantity - :quantity where id = :id and quantity >= :quantity",
+                batchArgs);
+    }
+
+    public void decrement(Map<Long, Integer> quantitiesById) {
+        List<MapSqlParameterSource> batchArgs = new ArrayList<>(quantitiesById.size());
+        quantitiesById.forEach((id, quantity) -> batchArgs.add(new MapSqlParameterSource("id", id).addValue("quantity", quantity)));
+        jdbcTemplate.batchUpdate("update t_inventory_warehouse_stock set quantity = quantity - :quantity where id = :id",
+                batchArgs.toArray(MapSqlParameterSource[]::new));
+    }
+
+    public void increment(String warehouseId, Map<String, Integer> quantitiesBySkuCode) {
+        List<MapSqlParameterSource> batchArgs = new ArrayList<>(quantitiesBySkuCode.size());
+        quantitiesBySkuCode.forEach((skuCode, quantity) -> batchArgs.add(new MapSqlParameterSource("skuCode", skuCode)
+                .addValue("warehouseId", warehouseId)
+                .addValue("quantity", quantity)));
+        jdbcTemplate.batchUpdate("""
+                        insert into t_inventory_warehouse_stock (sku_code, warehouse_id, quantity)
+                        values (:skuCode, :warehouseId, :quantity) as new
+                        on duplicate key update quantity = t_inventory_warehouse_stock.quantity + new.quantity""",
+                batchArgs.toArray(MapSqlParameterSource[]::new));
+    }
+
+    /**
+     * Inserts copies of {@code rows} under new ids.
+     */
+    public void insert(List<WarehouseStockRow> rows) {
+        jdbcTemplate.batchUpdate("insert into t_inventory_warehouse_stock (sku_code, warehouse_id, quantity) values (:skuCode, :warehouseId, :quantity)",
+                rows.stream()
+                        .map(row -> new MapSqlParameterSource("skuCode", row.skuCode())
+                                .addValue("warehouseId", row.warehouseId())
+                                .addValue("quantity", row.quantity()))
+                        .toArray(MapSqlParameterSource[]::new));
+    }
+
+    public void setQuantity(String skuCode, String warehouseId, int quantity) {
+        jdbcTemplate.update("""
+                        insert into t_inventory_warehouse_stock (sku_code, warehouse_id, quantity)
+                        values (:skuCode, :warehouseId, :quantity) as new
+                        on duplicate key update quantity = new.quantity""",
+                new MapSqlParameterSource("skuCode", skuCode).addValue("warehouseId", warehouseId).addValue("quantity", quantity));
+    }
+
+    public void renameSkuCode(String skuCode, String newSkuCode) {
+        jdbcTemplate.update("update t_inventory_warehouse_stock set sku_code = :newSkuCode where sku_code = :skuCode",
+                new MapSqlParameterSource("skuCode", skuCode).addValue("newSkuCode", newSkuCode));
+    }
+
+    public void deleteBySkuCodes(Collection<String> skuCodes) {
+        jdbcTemplate.update("delete from t_inventory_warehouse_stock where sku_code in (:skuCodes)",
+                new MapSqlParameterSource("skuCodes", skuCodes));
+    }
+}
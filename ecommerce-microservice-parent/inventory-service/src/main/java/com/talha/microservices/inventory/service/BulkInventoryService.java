@@ -0,0 +1,246 @@
+package com.talha.microservices.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talha.microservices.inventory.dto.BulkImportMode;
+import com.talha.microservices.inventory.dto.BulkImportResponse;
+import com.talha.microservices.inventory.dto.BulkLineError;
+import com.talha.microservices.inventory.dto.StockLineRequest;
+import com.talha.microservices.inventory.model.InventoryEventType;
+import com.talha.microservices.inventory.repository.InventoryJdbcRepository;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Streams CSV ({@code skuCode,quantity}) or NDJSON ({@code {"skuCode":..,"quantity":..}}) lines from the
+ * request body and applies them in chunks of {@code inventory.bulk.chunk-size}, one transaction per chunk.
+ * Only the current chunk and the first {@value #MAX_REPORTED_ERRORS} errors are held in memory.
+ */
+@Service
+@Slf4j
+public class BulkInventoryService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private record ParsedLine(long lineNumber, String skuCode, int quantity) {
+    }
+
+    private static final class ImportReport {
+        private long linesRead;
+        private long rowsApplied;
+        private long failedLines;
+        private final List<BulkLineError> errors = new ArrayList<>();
+
+        private void fail(BulkLineError error) {
+            failedLines++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final StockCache stockCache;
+    private final HotSkuStockService hotSkuStockService;
+    private final InventoryOutbox inventoryOutbox;
+    private final StockStreamService stockStreamService;
+    private final ShardRouter shardRouter;
+    private final WarehouseAllocator warehouseAllocator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    public BulkInventoryService(InventoryJdbcRepository inventoryJdbcRepository,
+                                StockCache stockCache,
+                                HotSkuStockService hotSkuStockService,
+                                InventoryOutbox inventoryOutbox,
+                                StockStreamService stockStreamService,
+                                ShardRouter shardRouter,
+                                WarehouseAllocator warehouseAllocator,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${inventory.bulk.chunk-size}") int chunkSize) {
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.stockCache = stockCache;
+        this.hotSkuStockService = hotSkuStockService;
+        this.inventoryOutbox = inventoryOutbox;
+        this.stockStreamService = stockStreamService;
+        this.shardRouter = shardRouter;
+        this.warehouseAllocator = warehouseAllocator;
+        this.objectMapper = objectMapper;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkImportResponse importStock(InputStream inputStream, MediaType contentType, BulkImportMode mode) throws IOException {
+        boolean ndjson = "x-ndjson".equalsIgnoreCase(contentType.getSubtype());
+        long startedAt = System.nanoTime();
+        ImportReport report = new ImportReport();
+
+        List<ParsedLine> chunk = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (!ndjson && lineNumber == 1 && isCsvHeader(line))) {
+                    continue;
+                }
+                report.linesRead++;
+                try {
+                    chunk.add(ndjson ? parseJson(lineNumber, line, mode) : parseCsv(lineNumber, line, mode));
+                } catch (IllegalArgumentException | JsonProcessingException e) {
+                    report.fail(new BulkLineError(lineNumber, null, e.getMessage()));
+                }
+                if (chunk.size() == chunkSize) {
+                    applyChunk(chunk, mode, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            applyChunk(chunk, mode, report);
+        }
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : report.rowsApplied / (elapsedNanos / 1_000_000_000d);
+        log.info("Bulk {} applied {} of {} lines in {} ms ({} rows/s)", mode, report.rowsApplied, report.linesRead,
+                elapsedNanos / 1_000_000, Math.round(rowsPerSecond));
+        return new BulkImportResponse(mode, report.linesRead, report.rowsApplied, report.failedLines, report.errors,
+                elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    // One transaction per shard the chunk touches
+    private void applyChunk(List<ParsedLine> chunk, BulkImportMode mode, ImportReport report) {
+        if (!shardRouter.isSharded()) {
+            applyShardChunk(chunk, mode, report);
+            return;
+        }
+        Map<Integer, List<ParsedLine>> linesByShard = new TreeMap<>();
+        chunk.forEach(line -> linesByShard.computeIfAbsent(shardRouter.shardOf(line.skuCode()), shard -> new ArrayList<>()).add(line));
+        linesByShard.forEach((shard, lines) -> shardRouter.onShard(shard, () -> {
+            applyShardChunk(lines, mode, report);
+            return null;
+        }));
+    }
+
+    private void applyShardChunk(List<ParsedLine> chunk, BulkImportMode mode, ImportReport report) {
+        List<BulkLineError> chunkErrors = new ArrayList<>();
+        // Distinct SKUs written, so a SKU repeated within the chunk counts as one row
+        int[] rowsApplied = new int[1];
+        try {
+            chunkTransaction.executeWithoutResult(status -> {
+                chunk.stream()
+                        .map(ParsedLine::skuCode)
+                        .distinct()
+                        .filter(hotSkuStockService::isHot)
+                        .forEach(hotSkuStockService::reload);
+                if (mode == BulkImportMode.UPSERT) {
+                    // The last line of a SKU wins
+                    Map<String, ParsedLine> lastLines = new LinkedHashMap<>();
+                    chunk.forEach(line -> lastLines.put(line.skuCode(), line));
+                    Map<String, InventoryJdbcRepository.StockLevel> previous = inventoryJdbcRepository.findStockLevelsForUpdate(lastLines.keySet());
+                    Map<String, Integer> quantities = new LinkedHashMap<>();
+                    lastLines.forEach((skuCode, line) -> {
+                        InventoryJdbcRepository.StockLevel level = previous.get(skuCode);
+                        if (level != null && line.quantity() < level.reservedQuantity()) {
+                            chunkErrors.add(new BulkLineError(line.lineNumber(), skuCode,
+                                    "Quantity " + line.quantity() + " is below the reserved quantity " + level.reservedQuantity()));
+                        } else {
+                            quantities.put(skuCode, line.quantity());
+                        }
+                    });
+                    inventoryJdbcRepository.upsertStock(quantities);
+                    Map<String, Integer> changes = new LinkedHashMap<>();
+                    quantities.forEach((skuCode, quantity) -> changes.put(skuCode,
+                            quantity - (previous.containsKey(skuCode) ? previous.get(skuCode).quantity() : 0)));
+                    warehouseAllocator.apply(changes);
+                    inventoryOutbox.recordAll(InventoryEventType.IMPORTED, quantities);
+                    rowsApplied[0] = quantities.size();
+                } else {
+                    int[] updateCounts = inventoryJdbcRepository.adjustStock(
+                            chunk.stream().map(ParsedLine::skuCode).toList(),
+                            chunk.stream().map(ParsedLine::quantity).toList());
+                    Map<String, Integer> applied = new LinkedHashMap<>();
+                    for (int i = 0; i < updateCounts.length; i++) {
+                        ParsedLine line = chunk.get(i);
+                        if (updateCounts[i] == 0) {
+                            chunkErrors.add(new BulkLineError(line.lineNumber(), line.skuCode(),
+                                    "Unknown SkuCode or not enough available stock for adjustment " + line.quantity()));
+                        } else {
+                            applied.merge(line.skuCode(), line.quantity(), Integer::sum);
+                        }
+                    }
+                    warehouseAllocator.apply(applied);
+                    inventoryOutbox.recordAll(InventoryEventType.ADJUSTED, applied);
+                    rowsApplied[0] = applied.size();
+                }
+                List<String> skuCodes = chunk.stream().map(ParsedLine::skuCode).distinct().toList();
+                skuCodes.forEach(stockCache::evict);
+                stockStreamService.markChanged(skuCodes);
+            });
+        } catch (DataAccessException e) {
+            log.error("Bulk chunk of {} lines rejected: {}", chunk.size(), e.getMostSpecificCause().getMessage());
+            chunk.forEach(line -> report.fail(new BulkLineError(line.lineNumber(), line.skuCode(),
+                    "Chunk rejected: " + e.getMostSpecificCause().getMessage())));
+            return;
+        }
+        chunkErrors.forEach(report::fail);
+        report.rowsApplied += rowsApplied[0];
+    }
+
+    private ParsedLine parseCsv(long lineNumber, String line, BulkImportMode mode) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 2) {
+            throw new IllegalArgumentException("Expected skuCode,quantity but got " + fields.length + " fields");
+        }
+        return validate(lineNumber, fields[0].trim(), parseQuantity(fields[1].trim()), mode);
+    }
+
+    private ParsedLine parseJson(long lineNumber, String line, BulkImportMode mode) throws JsonProcessingException {
+        StockLineRequest request = objectMapper.readValue(line, StockLineRequest.class);
+        if (request.quantity() == null) {
+            throw new IllegalArgumentException("quantity is required");
+        }
+        return validate(lineNumber, request.skuCode() == null ? "" : request.skuCode().trim(), request.quantity(), mode);
+    }
+
+    private ParsedLine validate(long lineNumber, String skuCode, int quantity, BulkImportMode mode) {
+        if (skuCode.isEmpty()) {
+            throw new IllegalArgumentException("skuCode is required");
+        }
+        if (mode == BulkImportMode.UPSERT && quantity < 0) {
+            throw new IllegalArgumentException("quantity must not be negative for " + skuCode);
+        }
+        return new ParsedLine(lineNumber, skuCode, quantity);
+    }
+
+    private int parseQuantity(String quantity) {
+        try {
+            return Integer.parseInt(quantity);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid quantity: " + quantity);
+        }
+    }
+
+    private boolean isCsvHeader(String line) {
+        return line.trim().toLowerCase().startsWith("skucode");
+    }
+}
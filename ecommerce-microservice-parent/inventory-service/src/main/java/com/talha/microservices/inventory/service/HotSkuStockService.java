@@ -0,0 +1,351 @@
+package com.talha.microservices.inventory.service;
+
+import com.talha.microservices.inventory.exception.ProductNotFoundException;
+import com.talha.microservices.inventory.exception.ProductNotInStockException;
+import com.talha.microservices.inventory.model.InventoryEventType;
+import com.talha.microservices.inventory.repository.InventoryJdbcRepository;
+import com.talha.microservices.inventory.repository.InventoryRepository;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Write-behind stock for SKUs listed in {@code inventory.hot-sku.sku-codes}. Reductions are decided on an
+ * in-memory {@link StripedStockCounter} and recorded as a row of {@code t_inventory_hot_sku_journal} in the
+ * caller's transaction, so they never lock the SKU's inventory row. Every
+ * {@code inventory.hot-sku.flush-interval} milliseconds the committed journal entries are applied to the
+ * inventory rows and deleted in one transaction per shard.
+ * <p>
+ * An acknowledged reduction is therefore durable: entries left behind by a crash are applied on the next
+ * startup, and a counter starts from the row's available quantity minus the SKU's unapplied entries.
+ * <p>
+ * The counters are only correct while a single instance sells hot SKUs. With hot SKUs enabled the service
+ * takes a MySQL named lock on shard {@code 0} at startup and refuses to start if another instance holds it.
+ * The lock is checked on every flush; an instance that loses it reduces hot SKUs on their rows until it
+ * gets the lock back. Remaining oversell windows:
+ * <ul>
+ *     <li>after losing the lock, up to one flush interval during which both instances sell from counters,
+ *     and row reductions that cannot see journal entries not yet applied;</li>
+ *     <li>a counter rebuilt by {@link #reload(String)} does not see reductions made on the counter it
+ *     replaces whose transactions have not committed yet.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class HotSkuStockService {
+
+    private static final String OWNER_LOCK = "inventory_hot_sku_owner";
+    private static final int FLUSH_BATCH_SIZE = 1000;
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final InventoryOutbox inventoryOutbox;
+    private final ShardRouter shardRouter;
+    private final WarehouseAllocator warehouseAllocator;
+    private final DataSource dataSource;
+    private final TransactionTemplate flushTransaction;
+    private final boolean enabled;
+    private final Set<String> hotSkuCodes;
+    private final int stripeCount;
+    private final ConcurrentMap<String, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Connection ownerConnection;
+    private volatile boolean owner;
+
+    public HotSkuStockService(InventoryRepository inventoryRepository,
+                              InventoryJdbcRepository inventoryJdbcRepository,
+                              InventoryOutbox inventoryOutbox,
+                              ShardRouter shardRouter,
+                              WarehouseAllocator warehouseAllocator,
+                              DataSource dataSource,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${inventory.hot-sku.enabled}") boolean enabled,
+                              @Value("${inventory.hot-sku.sku-codes}") Set<String> hotSkuCodes,
+                              @Value("${inventory.hot-sku.stripes}") int stripeCount) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.inventoryOutbox = inventoryOutbox;
+        this.shardRouter = shardRouter;
+        this.warehouseAllocator = warehouseAllocator;
+        this.dataSource = dataSource;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.hotSkuCodes = hotSkuCodes;
+        this.stripeCount = stripeCount;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled && !hotSkuCodes.isEmpty()) {
+            if (!acquireOwnership()) {
+                throw new IllegalStateException("Hot SKU stock is already served by another inventory instance; "
+                        + "inventory.hot-sku.enabled may only be set on one instance");
+            }
+            owner = true;
+        }
+        // Entries left by a previous process, also when hot SKUs have been disabled since
+        flushJournal(null);
+    }
+
+    public boolean isHot(String skuCode) {
+        return owner && hotSkuCodes.contains(skuCode);
+    }
+
+    public int availableStock(String skuCode) {
+        return counter(skuCode).available();
+    }
+
+    /**
+     * Takes the quantity from the counter and journals it in the current transaction, which must be bound
+     * to the SKU's shard. The counter is given the quantity back if that transaction rolls back.
+     */
+    public void reduceStock(String skuCode, int quantity) {
+        if (!tryReduceStock(skuCode, quantity)) {
+            throw new ProductNotInStockException("Not enough stock for product with SkuCode: " + skuCode);
+        }
+        TransactionHooks.afterRollback(() -> releaseStock(skuCode, quantity));
+        journal(Map.of(skuCode, quantity));
+    }
+
+    /**
+     * Only takes the quantity from the counter; the caller {@link #journal(Map) journals} it once the
+     * reduction is decided, or {@link #releaseStock(String, int) releases} it otherwise.
+     */
+    public boolean tryReduceStock(String skuCode, int quantity) {
+        while (true) {
+            StripedStockCounter counter = counter(skuCode);
+            switch (counter.tryReduce(quantity)) {
+                case REDUCED -> {
+                    return true;
+                }
+                case INSUFFICIENT -> {
+                    return false;
+                }
+                case RETIRED -> awaitReplacement(skuCode, counter);
+            }
+        }
+    }
+
+    /**
+     * Records reductions already taken from the counters in the current transaction, which must be bound
+     * to the shard of every SKU in {@code quantitiesBySkuCode}.
+     */
+    public void journal(Map<String, Integer> quantitiesBySkuCode) {
+        if (!quantitiesBySkuCode.isEmpty()) {
+            inventoryJdbcRepository.insertHotSkuJournal(quantitiesBySkuCode, Instant.now());
+        }
+    }
+
+    /**
+     * Gives an undone reduction back to the counter. Nothing is journaled, the reduction never was.
+     */
+    public void releaseStock(String skuCode, int quantity) {
+        while (true) {
+            StripedStockCounter counter = counter(skuCode);
+            if (counter.release(quantity) != StripedStockCounter.Result.RETIRED) {
+                return;
+            }
+            awaitReplacement(skuCode, counter);
+        }
+    }
+
+    /**
+     * Returns stock of a committed reduction, e.g. a released reservation: journals the quantity back in
+     * the current transaction and credits the counter once it commits.
+     */
+    public void restock(String skuCode, int quantity) {
+        journal(Map.of(skuCode, -quantity));
+        TransactionHooks.afterCommit(() -> releaseStock(skuCode, quantity));
+    }
+
+    /**
+     * Applies the SKU's journal and drops its counter once the caller's transaction completes, so that an
+     * absolute quantity written by that transaction is picked up by the next reduction.
+     */
+    public void reload(String skuCode) {
+        StripedStockCounter counter = counters.get(skuCode);
+        if (counter == null) {
+            return;
+        }
+        counter.retire();
+        flushLock.lock();
+        try {
+            flushJournal(skuCode);
+        } catch (RuntimeException e) {
+            counter.reactivate();
+            throw e;
+        } finally {
+            flushLock.unlock();
+        }
+        TransactionHooks.afterCompletion(() -> counters.remove(skuCode, counter));
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.hot-sku.flush-interval}")
+    public void flush() {
+        if (!enabled || hotSkuCodes.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            checkOwnership();
+            flushJournal(null);
+        } catch (DataAccessException e) {
+            log.error("Failed to flush hot SKU stock, retrying on next run: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushLock.lock();
+        try {
+            flushJournal(null);
+        } catch (DataAccessException e) {
+            log.warn("Hot SKU journal not flushed on shutdown, it is applied on next startup: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+            releaseOwnership();
+        }
+    }
+
+    private void flushJournal(String skuCode) {
+        RuntimeException failure = null;
+        List<Integer> shards = skuCode == null
+                ? IntStream.range(0, shardRouter.configuredShardCount()).boxed().toList()
+                : List.of(shardRouter.shardOf(skuCode));
+        for (int shard : shards) {
+            try {
+                int flushed;
+                do {
+                    flushed = flushJournalBatch(shard, skuCode);
+                } while (flushed == FLUSH_BATCH_SIZE);
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private int flushJournalBatch(int shard, String skuCode) {
+        return shardRouter.onShard(shard, () -> flushTransaction.execute(status -> {
+            List<InventoryJdbcRepository.HotSkuJournalEntry> entries = inventoryJdbcRepository.claimHotSkuJournal(skuCode, FLUSH_BATCH_SIZE);
+            if (entries.isEmpty()) {
+                return 0;
+            }
+            Map<String, Integer> deltas = new HashMap<>();
+            entries.forEach(entry -> deltas.merge(entry.skuCode(), entry.quantity(), Integer::sum));
+            deltas.values().removeIf(delta -> delta == 0);
+            inventoryJdbcRepository.decrementStock(deltas);
+            Map<String, Integer> changes = new HashMap<>();
+            deltas.forEach((sku, delta) -> changes.put(sku, -delta));
+            warehouseAllocator.apply(changes);
+            inventoryOutbox.recordAll(InventoryEventType.REDUCED, deltas);
+            inventoryJdbcRepository.deleteHotSkuJournal(entries.stream().map(InventoryJdbcRepository.HotSkuJournalEntry::id).toList());
+            log.debug("Flushed hot SKU stock deltas {} on shard {}", deltas, shard);
+            return entries.size();
+        }));
+    }
+
+    // The named lock lives as long as the session holding it; a dropped connection hands it to the next instance
+    private void checkOwnership() {
+        if (holdsOwnerLock()) {
+            return;
+        }
+        if (owner) {
+            owner = false;
+            log.error("Lost the hot SKU owner lock, reducing hot SKUs on their rows until it is reacquired");
+        }
+        releaseOwnership();
+        if (acquireOwnership()) {
+            // Another instance may have sold in between; rebuild every counter from MySQL
+            counters.clear();
+            owner = true;
+            log.info("Reacquired the hot SKU owner lock");
+        }
+    }
+
+    // Connections taken outside a routed transaction go to shard 0
+    private boolean acquireOwnership() {
+        try {
+            Connection connection = dataSource.getConnection();
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("select get_lock('" + OWNER_LOCK + "', 0)")) {
+                if (resultSet.next() && resultSet.getInt(1) == 1) {
+                    ownerConnection = connection;
+                    return true;
+                }
+            }
+            connection.close();
+            return false;
+        } catch (SQLException e) {
+            log.warn("Failed to take the hot SKU owner lock: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean holdsOwnerLock() {
+        if (ownerConnection == null) {
+            return false;
+        }
+        try (Statement statement = ownerConnection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select is_used_lock('" + OWNER_LOCK + "') = connection_id()")) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void releaseOwnership() {
+        if (ownerConnection == null) {
+            return;
+        }
+        try {
+            ownerConnection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close the hot SKU owner lock connection: {}", e.getMessage());
+        }
+        ownerConnection = null;
+    }
+
+    private StripedStockCounter counter(String skuCode) {
+        return counters.computeIfAbsent(skuCode, sku -> new StripedStockCounter(stripeCount,
+                shardRouter.inTransaction(shardRouter.shardOf(sku), () -> inventoryRepository.findBySkuCode(sku)
+                        .map(inventory -> inventory.getAvailableQuantity() - inventoryJdbcRepository.sumHotSkuJournal(sku)))
+                        .orElseThrow(() -> new ProductNotFoundException("Product not found with SkuCode: " + sku))));
+    }
+
+    private void awaitReplacement(String skuCode, StripedStockCounter retired) {
+        while (counters.get(skuCode) == retired) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.talha.microservices.inventory.service;
+
+import com.talha.microservices.inventory.dto.InventoryChangeEvent;
+import com.talha.microservices.inventory.model.InventoryEventType;
+import com.talha.microservices.inventory.model.OutboxEvent;
+import com.talha.microservices.inventory.repository.InventoryJdbcRepository;
+import com.talha.microservices.inventory.repository.OutboxEventRepository;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records inventory changes in {@code t_inventory_outbox} as part of the caller's transaction, so an
+ * event exists if and only if the change it describes was committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class InventoryOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final ShardRouter shardRouter;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String skuCode, InventoryEventType eventType, Integer quantity) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .skuCode(skuCode)
+                .eventType(eventType)
+                .quantity(quantity)
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(InventoryEventType eventType, Map<String, Integer> quantitiesBySkuCode) {
+        if (!quantitiesBySkuCode.isEmpty()) {
+            inventoryJdbcRepository.insertOutboxEvents(eventType, quantitiesBySkuCode, Instant.now());
+        }
+    }
+
+    public List<InventoryChangeEvent> changesAfter(int shard, long afterSequence, int limit) {
+        return shardRouter.onShard(shard, () -> outboxEventRepository.findByPublishedSeqGreaterThanOrderByPublishedSeqAsc(afterSequence, PageRequest.of(0, limit)))
+                .stream()
+                .map(InventoryOutbox::mapToChangeEvent)
+                .toList();
+    }
+
+    static InventoryChangeEvent mapToChangeEvent(OutboxEvent event) {
+        return new InventoryChangeEvent(event.getId(), event.getPublishedSeq(), event.getSkuCode(), event.getEventType(),
+                event.getQuantity(), event.getCreatedAt());
+    }
+}
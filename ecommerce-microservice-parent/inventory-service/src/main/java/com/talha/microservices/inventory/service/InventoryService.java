@@ -1,16 +1,42 @@
 package com.talha.microservices.inventory.service;
 
+import com.talha.microservices.inventory.dto.InventoryChangeEvent;
 import com.talha.microservices.inventory.dto.InventoryRequest;
 import com.talha.microservices.inventory.dto.InventoryResponse;
+import com.talha.microservices.inventory.dto.StockLineRequest;
+import com.talha.microservices.inventory.dto.StockLineResponse;
+import com.talha.microservices.inventory.dto.WarehouseStockRequest;
+import com.talha.microservices.inventory.dto.WarehouseStockResponse;
+import com.talha.microservices.inventory.exception.InsufficientStockException;
+import com.talha.microservices.inventory.exception.InvalidRequestException;
+import com.talha.microservices.inventory.exception.InvalidReservationStateException;
 import com.talha.microservices.inventory.exception.ProductNotFoundException;
 import com.talha.microservices.inventory.exception.ProductNotInStockException;
 import com.talha.microservices.inventory.model.Inventory;
+import com.talha.microservices.inventory.model.InventoryEventType;
+import com.talha.microservices.inventory.repository.InventoryJdbcRepository;
 import com.talha.microservices.inventory.repository.InventoryRepository;
+import com.talha.microservices.inventory.repository.WarehouseStockJdbcRepository;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,14 +45,30 @@ import java.util.stream.Collectors;
 public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
+    private final StockCache stockCache;
+    private final HotSkuStockService hotSkuStockService;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final InventoryOutbox inventoryOutbox;
+    private final StockStreamService stockStreamService;
+    private final ShardRouter shardRouter;
+    private final WarehouseAllocator warehouseAllocator;
+    private final WarehouseStockJdbcRepository warehouseStockJdbcRepository;
+    private final RequestDeduplicator requestDeduplicator;
 
+    @Transactional
     public InventoryResponse addInventory(InventoryRequest inventoryRequest) {
         try {
+            shardRouter.route(inventoryRequest.skuCode());
             Inventory inventory = Inventory.builder()
                     .skuCode(inventoryRequest.skuCode())
                     .quantity(inventoryRequest.quantity())
                     .build();
             inventoryRepository.save(inventory);
+            warehouseAllocator.restock(Collections.singletonMap(inventory.getSkuCode(), inventory.getQuantity()), inventoryRequest.warehouseId());
+            inventoryOutbox.record(inventory.getSkuCode(), InventoryEventType.CREATED, inventory.getQuantity());
+            stockCache.evict(inventory.getSkuCode());
+            stockStreamService.markChanged(inventory.getSkuCode());
             log.info("Inventory added successfully");
             return mapToInventoryResponse(inventory);
 
@@ -40,45 +82,378 @@ public class InventoryService {
     }
 
     public List<InventoryResponse> getAllInventory() {
-            return inventoryRepository.findAll()
+            List<InventoryResponse> inventories = new ArrayList<>();
+            shardRouter.onEachShard(shard -> inventoryRepository.findAll()
                     .stream()
                     .map(this::mapToInventoryResponse)
-                    .collect(Collectors.toList());
+                    .forEach(inventories::add));
+            return inventories;
+    }
+
+    // Shards own disjoint, ascending id ranges, so the merged page is still ordered by id
+    public List<InventoryResponse> getInventoryPage(Long afterId, int limit) {
+        List<Inventory> page = new ArrayList<>();
+        shardRouter.onEachShard(shard -> page.addAll(
+                inventoryRepository.findByIdGreaterThanOrderByIdAsc(afterId == null ? 0L : afterId, PageRequest.of(0, limit))));
+        return page.stream()
+                .sorted(Comparator.comparing(Inventory::getId))
+                .limit(limit)
+                .map(this::mapToInventoryResponse)
+                .collect(Collectors.toList());
+    }
+
+    public void exportInventory(OutputStream outputStream) {
+        shardRouter.onEachShard(shard -> inventoryJdbcRepository.streamAll(inventory -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(inventory));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
     }
 
+    @Transactional
     public InventoryResponse updateInventory(Long id, InventoryRequest inventoryRequest) {
-            Inventory inventory = inventoryRepository.findById(id)
+            if (inventoryRequest.skuCode() == null || inventoryRequest.quantity() == null || inventoryRequest.quantity() < 0) {
+                throw new InvalidRequestException("Inventory needs a skuCode and a non-negative quantity");
+            }
+            shardRouter.routeTo(shardRouter.shardOfId(id));
+            String previousSkuCode = inventoryRepository.findSkuCodeById(id)
                     .orElseThrow(() -> new ProductNotFoundException("Inventory not found with id: " + id));
-
+            // Pending hot SKU deltas are flushed into the row first, and the locking read below sees them,
+            // so the warehouse delta starts from the current quantity
+            hotSkuStockService.reload(previousSkuCode);
+            Inventory inventory = inventoryRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> new ProductNotFoundException("Inventory not found with id: " + id));
+            if (inventoryRequest.quantity() < inventory.getReservedQuantity()) {
+                throw new InvalidRequestException("Quantity of inventory id: " + id + " cannot drop below its reserved quantity "
+                        + inventory.getReservedQuantity());
+            }
+            stockCache.evict(previousSkuCode);
+            if (shardRouter.shardOf(inventoryRequest.skuCode()) != shardRouter.shardOfId(id)) {
+                return moveToShard(inventory, inventoryRequest);
+            }
+            int delta = inventoryRequest.quantity() - inventory.getQuantity();
             inventory.setSkuCode(inventoryRequest.skuCode());
             inventory.setQuantity(inventoryRequest.quantity());
             inventoryRepository.save(inventory);
+            warehouseAllocator.rename(previousSkuCode, inventory.getSkuCode());
+            if (delta < 0) {
+                warehouseAllocator.allocate(Map.of(inventory.getSkuCode(), -delta));
+            } else {
+                warehouseAllocator.restock(Map.of(inventory.getSkuCode(), delta), inventoryRequest.warehouseId());
+            }
+            if (!previousSkuCode.equals(inventory.getSkuCode())) {
+                inventoryOutbox.record(previousSkuCode, InventoryEventType.DELETED, null);
+            }
+            inventoryOutbox.record(inventory.getSkuCode(), InventoryEventType.UPDATED, inventory.getQuantity());
+            stockCache.evict(inventory.getSkuCode());
+            stockStreamService.markChanged(List.of(previousSkuCode, inventory.getSkuCode()));
             log.info("Inventory id: {} name: {} is updated", inventory.getId(), inventory.getSkuCode());
             return mapToInventoryResponse(inventory);
     }
 
+    @Transactional
     public void deleteInventoryById(Long id) {
+            shardRouter.routeTo(shardRouter.shardOfId(id));
             Inventory inventory = inventoryRepository.findById(id)
                     .orElseThrow(() -> new ProductNotFoundException("Inventory not found with id: " + id));
+            hotSkuStockService.reload(inventory.getSkuCode());
             inventoryRepository.delete(inventory);
+            warehouseAllocator.remove(List.of(inventory.getSkuCode()));
+            inventoryOutbox.record(inventory.getSkuCode(), InventoryEventType.DELETED, null);
+            stockCache.evict(inventory.getSkuCode());
+            stockStreamService.markChanged(inventory.getSkuCode());
             log.info("Inventory id: {} name: {} has been deleted", inventory.getId(), inventory.getSkuCode());
     }
 
     public boolean isInStock(String skuCode, Integer quantity) {
-        return inventoryRepository.existsBySkuCodeAndQuantityIsGreaterThanEqual(skuCode,quantity);
+        if (hotSkuStockService.isHot(skuCode)) {
+            try {
+                return hotSkuStockService.availableStock(skuCode) >= quantity;
+            } catch (ProductNotFoundException e) {
+                // Same answer as the cold path for a SKU without inventory
+                return false;
+            }
+        }
+        int available = stockCache.get(skuCode, sku -> shardRouter.onShard(shardRouter.shardOf(sku), () -> inventoryRepository.findBySkuCode(sku))
+                .map(Inventory::getAvailableQuantity)
+                .orElse(StockCache.ABSENT));
+        return available != StockCache.ABSENT && available >= quantity;
     }
 
+    @Transactional
     public void reduceStock(String skuCode, Integer quantity) {
-        Inventory inventory = inventoryRepository.findBySkuCode(skuCode)
-                .orElseThrow(() -> new ProductNotFoundException("Product not found with SkuCode: " + skuCode));
-        if (inventory.getQuantity() < quantity) {
+        reduceStock(skuCode, quantity, null);
+    }
+
+    /**
+     * Replaying a {@code requestId} that was already applied is a no-op, so clients may retry freely.
+     */
+    @Transactional
+    public void reduceStock(String skuCode, Integer quantity, String requestId) {
+        if (skuCode == null || quantity == null || quantity <= 0) {
+            throw new InvalidRequestException("Stock reduction needs a skuCode and a positive quantity");
+        }
+        shardRouter.route(skuCode);
+        if (!requestDeduplicator.claim(requestId)) {
+            return;
+        }
+        if (hotSkuStockService.isHot(skuCode)) {
+            hotSkuStockService.reduceStock(skuCode, quantity);
+            stockStreamService.markChanged(skuCode);
+            log.debug("Stock for hot product with SkuCode: {} has been reduced by {}", skuCode, quantity);
+            return;
+        }
+        int updatedRows = inventoryRepository.decrementStock(skuCode, quantity);
+        if (updatedRows == 0) {
+            if (!inventoryRepository.existsBySkuCode(skuCode)) {
+                throw new ProductNotFoundException("Product not found with SkuCode: " + skuCode);
+            }
             throw new ProductNotInStockException("Not enough stock for product with SkuCode: " + skuCode);
         }
-        inventory.setQuantity(inventory.getQuantity() - quantity);
-        inventoryRepository.save(inventory);
+        warehouseAllocator.allocate(Map.of(skuCode, quantity));
+        inventoryOutbox.record(skuCode, InventoryEventType.REDUCED, quantity);
+        stockCache.evict(skuCode);
+        stockStreamService.markChanged(skuCode);
         log.info("Stock for product with SkuCode: {} has been reduced by {}", skuCode, quantity);
     }
 
+    public List<StockLineResponse> checkStock(List<StockLineRequest> lines) {
+        Map<String, Integer> requested = sumQuantitiesBySkuCode(lines);
+        Map<String, Inventory> inventories = new HashMap<>();
+        shardRouter.groupByShard(requested.keySet()).forEach((shard, skuCodes) ->
+                inventories.putAll(shardRouter.onShard(shard, () -> findBySkuCodes(skuCodes, false))));
+        return requested.entrySet()
+                .stream()
+                .map(line -> hotSkuStockService.isHot(line.getKey())
+                        ? mapToHotStockLineResponse(line.getKey(), line.getValue())
+                        : mapToStockLineResponse(line.getKey(), line.getValue(), inventories.get(line.getKey())))
+                .collect(Collectors.toList());
+    }
+
+    public List<StockLineResponse> reduceStock(List<StockLineRequest> lines) {
+        return reduceStock(lines, null);
+    }
+
+    /**
+     * All-or-nothing across the lines. Row SKUs are locked in one transaction per shard, nested in shard
+     * order; the reduction is decided once every shard is locked and the shards commit innermost first.
+     * Hot SKUs are journaled in the transaction of their shard.
+     * The {@code requestId} is claimed in the outermost transaction; a replay reduces nothing and reports
+     * the current levels.
+     */
+    public List<StockLineResponse> reduceStock(List<StockLineRequest> lines, String requestId) {
+        Map<String, Integer> requested = sumQuantitiesBySkuCode(lines);
+        Map<String, Integer> hotLines = new LinkedHashMap<>();
+        Map<String, Integer> rowLines = new LinkedHashMap<>();
+        requested.forEach((skuCode, quantity) -> (hotSkuStockService.isHot(skuCode) ? hotLines : rowLines).put(skuCode, quantity));
+
+        Map<String, Inventory> inventories = new HashMap<>();
+        List<Map.Entry<Integer, List<String>>> shards = new ArrayList<>(shardRouter.groupByShard(requested.keySet()).entrySet());
+        if (shards.isEmpty()) {
+            shards = List.of(Map.entry(0, List.of()));
+        }
+        if (!reduceStockOnShards(shards, 0, requestId, requested, hotLines, rowLines, inventories)) {
+            return checkStock(lines)
+                    .stream()
+                    .map(line -> new StockLineResponse(line.skuCode(), line.quantity(), line.availableQuantity(), true))
+                    .collect(Collectors.toList());
+        }
+        stockStreamService.markChanged(requested.keySet());
+        log.info("Stock for {} products has been reduced in one batch", requested.size());
+        return requested.entrySet()
+                .stream()
+                .map(line -> new StockLineResponse(line.getKey(), line.getValue(),
+                        hotLines.containsKey(line.getKey())
+                                ? hotSkuStockService.availableStock(line.getKey())
+                                : inventories.get(line.getKey()).getAvailableQuantity(),
+                        true))
+                .collect(Collectors.toList());
+    }
+
+    private boolean reduceStockOnShards(List<Map.Entry<Integer, List<String>>> shards, int index, String requestId, Map<String, Integer> requested,
+                                        Map<String, Integer> hotLines, Map<String, Integer> rowLines, Map<String, Inventory> inventories) {
+        List<String> skuCodes = shards.get(index).getValue();
+        return shardRouter.inTransaction(shards.get(index).getKey(), () -> {
+            if (index == 0 && !requestDeduplicator.claim(requestId)) {
+                return false;
+            }
+            List<String> rowSkuCodes = skuCodes.stream().filter(rowLines::containsKey).toList();
+            inventories.putAll(findBySkuCodes(rowSkuCodes, true));
+            if (index + 1 < shards.size()) {
+                reduceStockOnShards(shards, index + 1, requestId, requested, hotLines, rowLines, inventories);
+            } else {
+                applyBatchReduction(requested, hotLines, rowLines, inventories);
+            }
+            Map<String, Integer> reduced = new LinkedHashMap<>();
+            Map<String, Integer> reducedHot = new LinkedHashMap<>();
+            skuCodes.forEach(skuCode -> {
+                if (hotLines.containsKey(skuCode)) {
+                    reducedHot.put(skuCode, hotLines.get(skuCode));
+                } else {
+                    stockCache.evict(skuCode);
+                    reduced.put(skuCode, rowLines.get(skuCode));
+                }
+            });
+            hotSkuStockService.journal(reducedHot);
+            warehouseAllocator.allocate(reduced);
+            inventoryOutbox.recordAll(InventoryEventType.REDUCED, reduced);
+            return true;
+        });
+    }
+
+    private void applyBatchReduction(Map<String, Integer> requested, Map<String, Integer> hotLines,
+                                     Map<String, Integer> rowLines, Map<String, Inventory> inventories) {
+        List<StockLineResponse> failedLines = rowLines.entrySet()
+                .stream()
+                .map(line -> mapToStockLineResponse(line.getKey(), line.getValue(), inventories.get(line.getKey())))
+                .filter(line -> !line.inStock())
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        Map<String, Integer> reducedHotLines = new LinkedHashMap<>();
+        if (failedLines.isEmpty()) {
+            hotLines.forEach((skuCode, quantity) -> {
+                try {
+                    if (hotSkuStockService.tryReduceStock(skuCode, quantity)) {
+                        reducedHotLines.put(skuCode, quantity);
+                    } else {
+                        failedLines.add(mapToHotStockLineResponse(skuCode, quantity));
+                    }
+                } catch (ProductNotFoundException e) {
+                    failedLines.add(new StockLineResponse(skuCode, quantity, 0, false));
+                }
+            });
+        }
+        if (!failedLines.isEmpty()) {
+            reducedHotLines.forEach(hotSkuStockService::releaseStock);
+            throw new InsufficientStockException("Not enough stock for " + failedLines.size() + " of " + requested.size() + " products", failedLines);
+        }
+        TransactionHooks.afterRollback(() -> reducedHotLines.forEach(hotSkuStockService::releaseStock));
+
+        rowLines.forEach((skuCode, quantity) -> {
+            Inventory inventory = inventories.get(skuCode);
+            inventory.setQuantity(inventory.getQuantity() - quantity);
+        });
+    }
+
+    public List<WarehouseStockResponse> getWarehouseStock(String skuCode) {
+        return shardRouter.onShard(shardRouter.shardOf(skuCode), () -> warehouseStockJdbcRepository.findBySkuCode(skuCode));
+    }
+
+    /**
+     * Sets the absolute quantity held by one warehouse and moves the SKU's total by the difference.
+     */
+    @Transactional
+    public List<WarehouseStockResponse> setWarehouseStock(WarehouseStockRequest warehouseStockRequest) {
+        String skuCode = warehouseStockRequest.skuCode();
+        if (skuCode == null || warehouseStockRequest.warehouseId() == null || warehouseStockRequest.warehouseId().isBlank()
+                || warehouseStockRequest.quantity() == null || warehouseStockRequest.quantity() < 0) {
+            throw new InvalidRequestException("Warehouse stock needs a skuCode, a warehouseId and a non-negative quantity");
+        }
+        shardRouter.route(skuCode);
+        hotSkuStockService.reload(skuCode);
+        Inventory inventory = findBySkuCodes(List.of(skuCode), true).get(skuCode);
+        if (inventory == null) {
+            throw new ProductNotFoundException("Product not found with SkuCode: " + skuCode);
+        }
+        int current = warehouseStockJdbcRepository.findBySkuCodes(List.of(skuCode), true)
+                .stream()
+                .filter(row -> row.warehouseId().equals(warehouseStockRequest.warehouseId()))
+                .mapToInt(WarehouseStockJdbcRepository.WarehouseStockRow::quantity)
+                .sum();
+        int delta = warehouseStockRequest.quantity() - current;
+        if (inventory.getAvailableQuantity() + delta < 0) {
+            throw new ProductNotInStockException("Warehouse stock for SkuCode: " + skuCode + " cannot drop below the reserved quantity");
+        }
+        inventory.setQuantity(inventory.getQuantity() + delta);
+        warehouseStockJdbcRepository.setQuantity(skuCode, warehouseStockRequest.warehouseId(), warehouseStockRequest.quantity());
+        inventoryOutbox.record(skuCode, InventoryEventType.ADJUSTED, delta);
+        stockCache.evict(skuCode);
+        stockStreamService.markChanged(skuCode);
+        log.info("Stock of SkuCode: {} in warehouse: {} set to {}", skuCode, warehouseStockRequest.warehouseId(), warehouseStockRequest.quantity());
+        return warehouseStockJdbcRepository.findBySkuCode(skuCode);
+    }
+
+    public List<InventoryChangeEvent> getChanges(int shard, long afterSequence, int limit) {
+        return inventoryOutbox.changesAfter(shard, afterSequence, limit);
+    }
+
+    // The new SkuCode hashes to another shard: the row is recreated there under a new id. The copy commits
+    // before the delete on the source shard, so it is removed again if this transaction rolls back
+    private InventoryResponse moveToShard(Inventory inventory, InventoryRequest inventoryRequest) {
+        if (inventory.getReservedQuantity() != null && inventory.getReservedQuantity() > 0) {
+            throw new InvalidReservationStateException("Inventory id: " + inventory.getId() + " has active reservations and cannot change shard");
+        }
+        inventoryRepository.delete(inventory);
+        warehouseAllocator.remove(List.of(inventory.getSkuCode()));
+        inventoryOutbox.record(inventory.getSkuCode(), InventoryEventType.DELETED, null);
+        stockStreamService.markChanged(inventory.getSkuCode());
+        int target = shardRouter.shardOf(inventoryRequest.skuCode());
+        Inventory moved = shardRouter.inTransaction(target, () -> {
+            Inventory created = inventoryRepository.save(Inventory.builder()
+                    .skuCode(inventoryRequest.skuCode())
+                    .quantity(inventoryRequest.quantity())
+                    .build());
+            warehouseAllocator.restock(Map.of(created.getSkuCode(), created.getQuantity()), inventoryRequest.warehouseId());
+            inventoryOutbox.record(created.getSkuCode(), InventoryEventType.UPDATED, created.getQuantity());
+            stockCache.evict(created.getSkuCode());
+            stockStreamService.markChanged(created.getSkuCode());
+            return created;
+        });
+        TransactionHooks.afterRollback(() -> shardRouter.inNewTransaction(target, () -> {
+            inventoryRepository.deleteById(moved.getId());
+            warehouseAllocator.remove(List.of(moved.getSkuCode()));
+            inventoryOutbox.record(moved.getSkuCode(), InventoryEventType.DELETED, null);
+            stockCache.evict(moved.getSkuCode());
+            log.warn("Inventory id: {} was not moved, removed its copy id: {} from shard {}", inventory.getId(), moved.getId(), target);
+            return null;
+        }));
+        log.info("Inventory id: {} moved to id: {} name: {}", inventory.getId(), moved.getId(), moved.getSkuCode());
+        return mapToInventoryResponse(moved);
+    }
+
+    private Map<String, Inventory> findBySkuCodes(Collection<String> skuCodes, boolean forUpdate) {
+        if (skuCodes.isEmpty()) {
+            return Map.of();
+        }
+        List<Inventory> inventories = forUpdate
+                ? inventoryRepository.findBySkuCodeInForUpdate(skuCodes)
+                : inventoryRepository.findBySkuCodeIn(skuCodes);
+        return inventories.stream()
+                .collect(Collectors.toMap(Inventory::getSkuCode, Function.identity(), (first, second) -> first));
+    }
+
+    private Map<String, Integer> sumQuantitiesBySkuCode(List<StockLineRequest> lines) {
+        Map<String, Integer> requested = new LinkedHashMap<>();
+        if (lines != null) {
+            lines.forEach(line -> {
+                if (line.skuCode() == null || line.quantity() == null || line.quantity() <= 0) {
+                    throw new InvalidRequestException("Invalid stock line: " + line);
+                }
+                requested.merge(line.skuCode(), line.quantity(), Integer::sum);
+            });
+        }
+        return requested;
+    }
+
+    private StockLineResponse mapToStockLineResponse(String skuCode, Integer quantity, Inventory inventory) {
+        if (inventory == null) {
+            return new StockLineResponse(skuCode, quantity, 0, false);
+        }
+        return new StockLineResponse(skuCode, quantity, inventory.getAvailableQuantity(), inventory.getAvailableQuantity() >= quantity);
+    }
+
+    private StockLineResponse mapToHotStockLineResponse(String skuCode, Integer quantity) {
+        try {
+            int available = hotSkuStockService.availableStock(skuCode);
+            return new StockLineResponse(skuCode, quantity, available, available >= quantity);
+        } catch (ProductNotFoundException e) {
+            return new StockLineResponse(skuCode, quantity, 0, false);
+        }
+    }
+
     private InventoryResponse mapToInventoryResponse(Inventory inventory) {
         return new InventoryResponse(inventory.getId(), inventory.getSkuCode(), inventory.getQuantity());
     }
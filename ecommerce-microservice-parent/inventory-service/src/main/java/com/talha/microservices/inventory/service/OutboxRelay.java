@@ -0,0 +1,132 @@
+package com.talha.microservices.inventory.service;
+
+import com.talha.microservices.inventory.model.OutboxEvent;
+import com.talha.microservices.inventory.outbox.OutboxSink;
+import com.talha.microservices.inventory.repository.InventoryJdbcRepository;
+import com.talha.microservices.inventory.repository.OutboxEventRepository;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Publishes committed outbox rows to the configured {@link OutboxSink}. Each batch is claimed in a short
+ * transaction that numbers it with the next contiguous {@code published_seq} values and leases it for
+ * {@code inventory.outbox.lease}; the sink is called after that commits and the batch is marked published
+ * afterwards. A sink failure releases the claim, and a crashed relay's claim runs out, so the batch is
+ * published again with the same sequence numbers. Sequence numbers are assigned in claim order, which gives
+ * consumers of {@code /api/inventory/changes} a gap-free cursor.
+ * Published rows are purged after {@code inventory.outbox.retention}, always keeping the latest one so
+ * numbering continues across restarts.
+ * <p>
+ * With sharding enabled every shard has its own outbox and its own sequence; the relay drains them one
+ * after another.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final OutboxSink outboxSink;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate relayTransaction;
+    private final int batchSize;
+    private final Duration retention;
+    private final Duration lease;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       InventoryJdbcRepository inventoryJdbcRepository,
+                       OutboxSink outboxSink,
+                       ShardRouter shardRouter,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${inventory.outbox.batch-size}") int batchSize,
+                       @Value("${inventory.outbox.retention}") Duration retention,
+                       @Value("${inventory.outbox.lease}") Duration lease) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.outboxSink = outboxSink;
+        this.shardRouter = shardRouter;
+        this.relayTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.lease = lease;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.outbox.relay-interval}")
+    public void relay() {
+        shardRouter.onEachShard(shard -> {
+            try {
+                int published;
+                do {
+                    published = publishBatch();
+                } while (published == batchSize);
+            } catch (RuntimeException e) {
+                log.error("Failed to publish outbox events of shard {}: {}", shard, e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.outbox.purge-interval}")
+    public void purge() {
+        shardRouter.onEachShard(shard -> {
+            try {
+                Instant publishedBefore = Instant.now().minus(retention);
+                long latestSequence = outboxEventRepository.findMaxPublishedSeq();
+                int purged;
+                do {
+                    purged = inventoryJdbcRepository.deletePublishedOutboxEvents(publishedBefore, latestSequence, batchSize);
+                } while (purged == batchSize);
+            } catch (RuntimeException e) {
+                log.error("Failed to purge published outbox events of shard {}: {}", shard, e.getMessage());
+            }
+        });
+    }
+
+    int publishBatch() {
+        Instant now = Instant.now();
+        List<OutboxEvent> batch = relayTransaction.execute(status -> claimBatch(now));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+        try {
+            outboxSink.publish(batch.stream().map(InventoryOutbox::mapToChangeEvent).toList());
+        } catch (RuntimeException e) {
+            relayTransaction.executeWithoutResult(status -> outboxEventRepository.releaseClaim(ids));
+            throw e;
+        }
+        relayTransaction.executeWithoutResult(status -> outboxEventRepository.markPublished(ids, Instant.now()));
+        log.debug("Published {} outbox events", batch.size());
+        return batch.size();
+    }
+
+    /**
+     * Locks the next batch with {@code skip locked}, numbers the events that have no sequence yet and leases
+     * them until {@code now + lease}. The transaction commits before the sink is called, so writers of new
+     * outbox rows never wait on the sink's I/O.
+     */
+    private List<OutboxEvent> claimBatch(Instant now) {
+        List<OutboxEvent> batch = outboxEventRepository.findClaimableForUpdate(now, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        long sequence = outboxEventRepository.findMaxPublishedSeq();
+        Instant claimedUntil = now.plus(lease);
+        for (OutboxEvent event : batch) {
+            if (event.getPublishedSeq() == null) {
+                event.setPublishedSeq(++sequence);
+            }
+            event.setClaimedUntil(claimedUntil);
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,89 @@
+package com.talha.microservices.inventory.service;
+
+import com.talha.microservices.inventory.repository.InventoryJdbcRepository;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Remembers which client request IDs have already been applied, so a retried or hedged stock reduction
+ * is acknowledged without decrementing twice. The ID is claimed in {@code t_inventory_applied_request}
+ * inside the caller's transaction: the claim commits together with the reduction and rolls back with it.
+ * A concurrent replay blocks on the primary key until the first attempt finishes, then sees it as applied.
+ * <p>
+ * IDs are stored as 16 bytes (the UUID itself, or a name-based UUID of any other string) and forgotten
+ * after {@code inventory.dedupe.retention}, which must outlast the longest client retry window.
+ */
+@Component
+@Slf4j
+public class RequestDeduplicator {
+
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final ShardRouter shardRouter;
+    private final Duration retention;
+    private final int purgeBatchSize;
+
+    public RequestDeduplicator(InventoryJdbcRepository inventoryJdbcRepository,
+                               ShardRouter shardRouter,
+                               @Value("${inventory.dedupe.retention}") Duration retention,
+                               @Value("${inventory.dedupe.purge-batch-size}") int purgeBatchSize) {
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.shardRouter = shardRouter;
+        this.retention = retention;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /**
+     * @return {@code true} if the request is new and the caller should apply it, {@code false} if it was
+     * already applied.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean claim(String requestId) {
+        if (requestId == null || requestId.isBlank()) {
+            return true;
+        }
+        boolean claimed = inventoryJdbcRepository.insertAppliedRequest(requestKey(requestId), Instant.now());
+        if (!claimed) {
+            log.info("Request {} has already been applied, skipping", requestId);
+        }
+        return claimed;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.dedupe.purge-interval}")
+    public void purge() {
+        shardRouter.onEachShard(shard -> {
+            try {
+                Instant appliedBefore = Instant.now().minus(retention);
+                int purged;
+                do {
+                    purged = inventoryJdbcRepository.deleteAppliedRequests(appliedBefore, purgeBatchSize);
+                } while (purged == purgeBatchSize);
+            } catch (RuntimeException e) {
+                log.error("Failed to purge applied requests of shard {}: {}", shard, e.getMessage());
+            }
+        });
+    }
+
+    static byte[] requestKey(String requestId) {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(requestId);
+        } catch (IllegalArgumentException e) {
+            uuid = UUID.nameUUIDFromBytes(requestId.getBytes(StandardCharsets.UTF_8));
+        }
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,78 @@
+package com.talha.microservices.inventory.service;
+
+import com.talha.microservices.inventory.model.ReservationStatus;
+import com.talha.microservices.inventory.repository.ReservationRepository;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Releases expired reservations. The timer wheel covers holds made by this instance; the slower
+ * database sweep picks up holds from other instances or from before a restart.
+ */
+@Component
+@Slf4j
+public class ReservationExpirySweeper {
+
+    private final ReservationExpiryWheel expiryWheel;
+    private final ReservationService reservationService;
+    private final ReservationRepository reservationRepository;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+
+    public ReservationExpirySweeper(ReservationExpiryWheel expiryWheel,
+                                    ReservationService reservationService,
+                                    ReservationRepository reservationRepository,
+                                    ShardRouter shardRouter,
+                                    @Value("${inventory.reservation.expiry-batch-size}") int batchSize) {
+        this.expiryWheel = expiryWheel;
+        this.reservationService = reservationService;
+        this.reservationRepository = reservationRepository;
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.wheel-tick}")
+    public void sweepWheel() {
+        Map<Integer, List<String>> dueByShard = expiryWheel.advance(Instant.now())
+                .stream()
+                .collect(Collectors.groupingBy(shardRouter::shardOfKey));
+        dueByShard.values().forEach(due -> {
+            for (int from = 0; from < due.size(); from += batchSize) {
+                expire(due.subList(from, Math.min(from + batchSize, due.size())));
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.db-sweep-interval}")
+    public void sweepDatabase() {
+        shardRouter.onEachShard(shard -> {
+            List<String> due;
+            do {
+                due = reservationRepository.findReservationIdsByStatusAndExpiresAtBefore(
+                        ReservationStatus.ACTIVE, Instant.now(), PageRequest.of(0, batchSize));
+            } while (!due.isEmpty() && expire(due) == batchSize);
+        });
+    }
+
+    private int expire(List<String> reservationIds) {
+        try {
+            int expired = reservationService.expire(reservationIds);
+            if (expired > 0) {
+                log.info("Released {} expired reservations", expired);
+            }
+            return expired;
+        } catch (RuntimeException e) {
+            log.error("Failed to release expired reservations: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.talha.microservices.inventory.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timer wheel of reservation deadlines. Scheduling is O(1) and each {@link #advance(Instant)}
+ * only touches the slots whose tick has passed, so expiring holds costs nothing per request.
+ * Deadlines further away than one revolution stay in their slot until a later pass reaches them.
+ */
+@Component
+public class ReservationExpiryWheel {
+
+    private record Deadline(String reservationId, long expiresAtMillis) {
+    }
+
+    private final long tickMillis;
+    private final int mask;
+    private final Queue<Deadline>[] slots;
+    private long lastTick;
+
+    @SuppressWarnings("unchecked")
+    public ReservationExpiryWheel(@Value("${inventory.reservation.wheel-tick}") long tickMillis,
+                                  @Value("${inventory.reservation.wheel-size}") int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("inventory.reservation.wheel-size must be a power of two");
+        }
+        this.tickMillis = tickMillis;
+        this.mask = wheelSize - 1;
+        this.slots = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    public void schedule(String reservationId, Instant expiresAt) {
+        long expiresAtMillis = expiresAt.toEpochMilli();
+        slots[(int) (expiresAtMillis / tickMillis) & mask].add(new Deadline(reservationId, expiresAtMillis));
+    }
+
+    /**
+     * Returns the reservations whose deadline is at or before {@code now}. Called from a single scheduler thread.
+     */
+    public synchronized List<String> advance(Instant now) {
+        long nowMillis = now.toEpochMilli();
+        long currentTick = nowMillis / tickMillis;
+        List<String> expired = new ArrayList<>();
+        // A pause longer than a revolution still only needs one pass over every slot
+        long firstTick = Math.max(lastTick, currentTick - mask);
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            Queue<Deadline> slot = slots[(int) tick & mask];
+            int pending = slot.size();
+            for (int i = 0; i < pending; i++) {
+                Deadline deadline = slot.poll();
+                if (deadline == null) {
+                    break;
+                }
+                if (deadline.expiresAtMillis() <= nowMillis) {
+                    expired.add(deadline.reservationId());
+                } else {
+                    slot.add(deadline);
+                }
+            }
+        }
+        lastTick = currentTick;
+        return expired;
+    }
+}
@@ -0,0 +1,195 @@
+package com.talha.microservices.inventory.service;
+
+import com.talha.microservices.inventory.dto.ReservationRequest;
+import com.talha.microservices.inventory.dto.ReservationResponse;
+import com.talha.microservices.inventory.exception.InvalidRequestException;
+import com.talha.microservices.inventory.exception.InvalidReservationStateException;
+import com.talha.microservices.inventory.exception.ProductNotFoundException;
+import com.talha.microservices.inventory.exception.ProductNotInStockException;
+import com.talha.microservices.inventory.exception.ReservationNotFoundException;
+import com.talha.microservices.inventory.model.InventoryEventType;
+import com.talha.microservices.inventory.model.Reservation;
+import com.talha.microservices.inventory.model.ReservationStatus;
+import com.talha.microservices.inventory.repository.InventoryRepository;
+import com.talha.microservices.inventory.repository.ReservationRepository;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@Slf4j
+public class ReservationService {
+
+    private final ReservationRepository reservationRepository;
+    private final InventoryRepository inventoryRepository;
+    private final StockCache stockCache;
+    private final HotSkuStockService hotSkuStockService;
+    private final ReservationExpiryWheel expiryWheel;
+    private final InventoryOutbox inventoryOutbox;
+    private final StockStreamService stockStreamService;
+    private final ShardRouter shardRouter;
+    private final WarehouseAllocator warehouseAllocator;
+    private final Duration defaultTtl;
+
+    public ReservationService(ReservationRepository reservationRepository,
+                              InventoryRepository inventoryRepository,
+                              StockCache stockCache,
+                              HotSkuStockService hotSkuStockService,
+                              ReservationExpiryWheel expiryWheel,
+                              InventoryOutbox inventoryOutbox,
+                              StockStreamService stockStreamService,
+                              ShardRouter shardRouter,
+                              WarehouseAllocator warehouseAllocator,
+                              @Value("${inventory.reservation.default-ttl}") Duration defaultTtl) {
+        this.reservationRepository = reservationRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.stockCache = stockCache;
+        this.hotSkuStockService = hotSkuStockService;
+        this.expiryWheel = expiryWheel;
+        this.inventoryOutbox = inventoryOutbox;
+        this.stockStreamService = stockStreamService;
+        this.shardRouter = shardRouter;
+        this.warehouseAllocator = warehouseAllocator;
+        this.defaultTtl = defaultTtl;
+    }
+
+    @Transactional
+    public ReservationResponse reserve(ReservationRequest reservationRequest) {
+        String skuCode = reservationRequest.skuCode();
+        Integer quantity = reservationRequest.quantity();
+        if (skuCode == null || quantity == null || quantity <= 0) {
+            throw new InvalidRequestException("Reservation needs a skuCode and a positive quantity");
+        }
+        if (reservationRequest.ttlSeconds() != null && reservationRequest.ttlSeconds() <= 0) {
+            throw new InvalidRequestException("ttlSeconds must be positive");
+        }
+        shardRouter.route(skuCode);
+        boolean stockDeducted = hotSkuStockService.isHot(skuCode);
+        if (stockDeducted) {
+            hotSkuStockService.reduceStock(skuCode, quantity);
+        } else if (inventoryRepository.reserveStock(skuCode, quantity) == 0) {
+            if (!inventoryRepository.existsBySkuCode(skuCode)) {
+                throw new ProductNotFoundException("Product not found with SkuCode: " + skuCode);
+            }
+            throw new ProductNotInStockException("Not enough stock for product with SkuCode: " + skuCode);
+        } else {
+            inventoryOutbox.record(skuCode, InventoryEventType.RESERVED, quantity);
+            stockCache.evict(skuCode);
+        }
+        stockStreamService.markChanged(skuCode);
+
+        Instant now = Instant.now();
+        Duration ttl = reservationRequest.ttlSeconds() == null ? defaultTtl : Duration.ofSeconds(reservationRequest.ttlSeconds());
+        Reservation reservation = Reservation.builder()
+                .reservationId(shardRouter.scopedKey(shardRouter.shardOf(skuCode), UUID.randomUUID().toString()))
+                .skuCode(skuCode)
+                .quantity(quantity)
+                .stockDeducted(stockDeducted)
+                .status(ReservationStatus.ACTIVE)
+                .expiresAt(now.plus(ttl))
+                .createdAt(now)
+                .build();
+        reservationRepository.save(reservation);
+        TransactionHooks.afterCommit(() -> expiryWheel.schedule(reservation.getReservationId(), reservation.getExpiresAt()));
+        log.info("Reserved {} of product with SkuCode: {} until {}", quantity, skuCode, reservation.getExpiresAt());
+        return mapToReservationResponse(reservation);
+    }
+
+    @Transactional
+    public ReservationResponse confirm(String reservationId) {
+        Reservation reservation = findActiveReservation(reservationId);
+        if (reservation.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidReservationStateException("Reservation has expired: " + reservationId);
+        }
+        if (!reservation.isStockDeducted()) {
+            inventoryRepository.confirmReservedStock(reservation.getSkuCode(), reservation.getQuantity());
+            warehouseAllocator.allocate(Map.of(reservation.getSkuCode(), reservation.getQuantity()));
+            inventoryOutbox.record(reservation.getSkuCode(), InventoryEventType.RESERVATION_CONFIRMED, reservation.getQuantity());
+        }
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        log.info("Reservation {} confirmed", reservationId);
+        return mapToReservationResponse(reservation);
+    }
+
+    @Transactional
+    public ReservationResponse release(String reservationId) {
+        Reservation reservation = findActiveReservation(reservationId);
+        releaseHolds(List.of(reservation));
+        reservation.setStatus(ReservationStatus.RELEASED);
+        log.info("Reservation {} released", reservationId);
+        return mapToReservationResponse(reservation);
+    }
+
+    /**
+     * All ids must belong to the same shard, see {@link ShardRouter#shardOfKey(String)}.
+     */
+    @Transactional
+    public int expire(Collection<String> reservationIds) {
+        if (reservationIds.isEmpty()) {
+            return 0;
+        }
+        shardRouter.routeTo(shardRouter.shardOfKey(reservationIds.iterator().next()));
+        Instant now = Instant.now();
+        List<Reservation> expired = reservationRepository.findByReservationIdInAndStatusForUpdate(reservationIds, ReservationStatus.ACTIVE)
+                .stream()
+                .filter(reservation -> !reservation.getExpiresAt().isAfter(now))
+                .toList();
+        releaseHolds(expired);
+        expired.forEach(reservation -> reservation.setStatus(ReservationStatus.EXPIRED));
+        return expired.size();
+    }
+
+    private Reservation findActiveReservation(String reservationId) {
+        shardRouter.routeTo(shardRouter.shardOfKey(reservationId));
+        Reservation reservation = reservationRepository.findByReservationIdForUpdate(reservationId)
+                .orElseThrow(() -> new ReservationNotFoundException("Reservation not found with id: " + reservationId));
+        if (reservation.getStatus() != ReservationStatus.ACTIVE) {
+            throw new InvalidReservationStateException("Reservation " + reservationId + " is already " + reservation.getStatus());
+        }
+        return reservation;
+    }
+
+    // One statement per SKU, however many holds are released together
+    private void releaseHolds(List<Reservation> reservations) {
+        Map<String, Integer> reserved = new HashMap<>();
+        Map<String, Integer> deducted = new HashMap<>();
+        reservations.forEach(reservation -> (reservation.isStockDeducted() ? deducted : reserved)
+                .merge(reservation.getSkuCode(), reservation.getQuantity(), Integer::sum));
+
+        reserved.forEach((skuCode, quantity) -> {
+            inventoryRepository.releaseReservedStock(skuCode, quantity);
+            inventoryOutbox.record(skuCode, InventoryEventType.RESERVATION_RELEASED, quantity);
+            stockCache.evict(skuCode);
+            if (hotSkuStockService.isHot(skuCode)) {
+                // The reload flushes to the same row in its own transaction, which would wait on the lock held here
+                TransactionHooks.afterCommit(() -> hotSkuStockService.reload(skuCode));
+            }
+        });
+        deducted.forEach((skuCode, quantity) -> {
+            if (hotSkuStockService.isHot(skuCode)) {
+                hotSkuStockService.restock(skuCode, quantity);
+            } else {
+                inventoryRepository.incrementStock(skuCode, quantity);
+                warehouseAllocator.restock(Map.of(skuCode, quantity), null);
+                inventoryOutbox.record(skuCode, InventoryEventType.ADJUSTED, quantity);
+                stockCache.evict(skuCode);
+            }
+        });
+        stockStreamService.markChanged(reservations.stream().map(Reservation::getSkuCode).distinct().toList());
+    }
+
+    private ReservationResponse mapToReservationResponse(Reservation reservation) {
+        return new ReservationResponse(reservation.getReservationId(), reservation.getSkuCode(), reservation.getQuantity(),
+                reservation.getStatus(), reservation.getExpiresAt());
+    }
+}
@@ -0,0 +1,138 @@
+package com.talha.microservices.inventory.service;
+
+import com.talha.microservices.inventory.model.Inventory;
+import com.talha.microservices.inventory.model.InventoryEventType;
+import com.talha.microservices.inventory.repository.InventoryJdbcRepository;
+import com.talha.microservices.inventory.repository.InventoryRepository;
+import com.talha.microservices.inventory.repository.WarehouseStockJdbcRepository;
+import com.talha.microservices.inventory.repository.WarehouseStockJdbcRepository.WarehouseStockRow;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import com.talha.microservices.inventory.sharding.ShardingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves every inventory row whose SKU hashes to a different shard than the one it is stored on, e.g. after
+ * shards were added or {@code inventory.sharding.active-shards} was changed. Runs on startup when
+ * {@code inventory.sharding.reshard-on-startup} is set and is safe to repeat.
+ * <p>
+ * Each batch is written to its target shards before it is deleted from the source shard. The target rows
+ * and their warehouse rows are overwritten with the source's absolute quantities, so a crash in between
+ * leaves a copy that the next run writes again with the same values instead of adding to it. The target's
+ * own rows for those SKUs are replaced; run it before routing traffic to the new layout, since hot SKU
+ * counters and cached quantities follow the new layout immediately. Moved rows get ids from their new
+ * shard's range. Rows holding reserved stock are skipped until their reservations are confirmed, released
+ * or expired.
+ */
+@Service
+@Slf4j
+public class ReshardingService implements ApplicationRunner {
+
+    public record ReshardReport(long scanned, long moved, long skipped) {
+    }
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final WarehouseStockJdbcRepository warehouseStockJdbcRepository;
+    private final InventoryOutbox inventoryOutbox;
+    private final StockCache stockCache;
+    private final ShardRouter shardRouter;
+    private final ShardingProperties shardingProperties;
+
+    public ReshardingService(InventoryRepository inventoryRepository,
+                             InventoryJdbcRepository inventoryJdbcRepository,
+                             WarehouseStockJdbcRepository warehouseStockJdbcRepository,
+                             InventoryOutbox inventoryOutbox,
+                             StockCache stockCache,
+                             ShardRouter shardRouter,
+                             ShardingProperties shardingProperties) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.warehouseStockJdbcRepository = warehouseStockJdbcRepository;
+        this.inventoryOutbox = inventoryOutbox;
+        this.stockCache = stockCache;
+        this.shardRouter = shardRouter;
+        this.shardingProperties = shardingProperties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (shardingProperties.isEnabled() && shardingProperties.isReshardOnStartup()) {
+            reshard();
+        }
+    }
+
+    public ReshardReport reshard() {
+        long scanned = 0;
+        long moved = 0;
+        long skipped = 0;
+        for (int source = 0; source < shardRouter.configuredShardCount(); source++) {
+            int shard = source;
+            long afterId = 0;
+            List<Inventory> batch;
+            do {
+                long from = afterId;
+                batch = shardRouter.onShard(shard, () -> inventoryRepository.findByIdGreaterThanOrderByIdAsc(
+                        from, PageRequest.of(0, shardingProperties.getReshardBatchSize())));
+                List<Inventory> misplaced = new ArrayList<>();
+                for (Inventory inventory : batch) {
+                    if (shardRouter.shardOf(inventory.getSkuCode()) == shard) {
+                        continue;
+                    }
+                    if (inventory.getReservedQuantity() != null && inventory.getReservedQuantity() > 0) {
+                        skipped++;
+                    } else {
+                        misplaced.add(inventory);
+                    }
+                }
+                moveRows(shard, misplaced);
+                scanned += batch.size();
+                moved += misplaced.size();
+                if (!batch.isEmpty()) {
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == shardingProperties.getReshardBatchSize());
+        }
+        ReshardReport report = new ReshardReport(scanned, moved, skipped);
+        log.info("Resharding over {} shards finished: {}", shardRouter.shardCount(), report);
+        return report;
+    }
+
+    private void moveRows(int source, List<Inventory> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        rows.forEach(inventory -> quantities.put(inventory.getSkuCode(), inventory.getQuantity()));
+        List<WarehouseStockRow> warehouseRows = shardRouter.onShard(source,
+                () -> warehouseStockJdbcRepository.findBySkuCodes(quantities.keySet(), false));
+        shardRouter.groupByShard(quantities.keySet()).forEach((target, skuCodes) -> shardRouter.inTransaction(target, () -> {
+            Map<String, Integer> targetQuantities = new LinkedHashMap<>();
+            skuCodes.forEach(skuCode -> targetQuantities.put(skuCode, quantities.get(skuCode)));
+            inventoryJdbcRepository.upsertStock(targetQuantities);
+            warehouseStockJdbcRepository.deleteBySkuCodes(targetQuantities.keySet());
+            warehouseStockJdbcRepository.insert(warehouseRows.stream()
+                    .filter(row -> targetQuantities.containsKey(row.skuCode()))
+                    .toList());
+            inventoryOutbox.recordAll(InventoryEventType.IMPORTED, targetQuantities);
+            return null;
+        }));
+        shardRouter.inTransaction(source, () -> {
+            inventoryJdbcRepository.deleteByIds(rows.stream().map(Inventory::getId).toList());
+            warehouseStockJdbcRepository.deleteBySkuCodes(quantities.keySet());
+            Map<String, Integer> deleted = new LinkedHashMap<>();
+            quantities.keySet().forEach(skuCode -> deleted.put(skuCode, null));
+            inventoryOutbox.recordAll(InventoryEventType.DELETED, deleted);
+            return null;
+        });
+        quantities.keySet().forEach(stockCache::evict);
+    }
+}
@@ -0,0 +1,61 @@
+package com.talha.microservices.inventory.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded SKU -> quantity cache that answers stock checks. Entries are only filled by reads that miss;
+ * mutations evict the SKU after the surrounding transaction commits, so readers never cache uncommitted
+ * quantities and two commits whose hooks run out of order cannot leave the older quantity cached.
+ */
+@Component
+public class StockCache {
+
+    public static final int ABSENT = -1;
+
+    private final Cache<String, Integer> cache;
+    private final long maximumSize;
+
+    public StockCache(@Value("${inventory.stock-cache.maximum-size}") long maximumSize,
+                      @Value("${inventory.stock-cache.expire-after-write}") Duration expireAfterWrite,
+                      MeterRegistry meterRegistry) {
+        this.maximumSize = maximumSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "inventory.stock");
+    }
+
+    public int get(String skuCode, Function<String, Integer> loader) {
+        return cache.get(skuCode, loader);
+    }
+
+    public void evict(String skuCode) {
+        TransactionHooks.afterCommit(() -> cache.invalidate(skuCode));
+    }
+
+    /**
+     * Loads entries without replacing quantities that are already cached, which are at least as recent.
+     */
+    public void warm(Map<String, Integer> quantitiesBySkuCode) {
+        quantitiesBySkuCode.forEach((skuCode, quantity) -> cache.asMap().putIfAbsent(skuCode, quantity));
+    }
+
+    public long maximumSize() {
+        return maximumSize;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
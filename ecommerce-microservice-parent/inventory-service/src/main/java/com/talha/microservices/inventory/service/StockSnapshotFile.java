@@ -0,0 +1,115 @@
+package com.talha.microservices.inventory.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Binary SKU -> available quantity snapshot. Layout, big-endian:
+ * <pre>
+ * int magic "INVS" | short version | long createdAtMillis | short shardCount | shardCount x long outboxSequence | int entryCount
+ * entryCount x (short skuCodeLength | skuCodeLength bytes UTF-8 | int availableQuantity)
+ * </pre>
+ * Files are written to a temporary sibling and atomically moved into place, and read through a
+ * read-only memory mapping.
+ */
+final class StockSnapshotFile {
+
+    record Header(long[] outboxSequences, Instant createdAt, int entryCount) {
+    }
+
+    private static final int MAGIC = 0x494E5653;
+    private static final short VERSION = 2;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private StockSnapshotFile() {
+    }
+
+    static Header write(Path target, long[] outboxSequences, Instant createdAt, Consumer<ObjIntConsumer<String>> entries) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        int[] entryCount = {0};
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            channel.position(headerSize(outboxSequences.length));
+            entries.accept((skuCode, availableQuantity) -> {
+                byte[] sku = skuCode.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < 2 + sku.length + 4) {
+                    drain(channel, buffer);
+                }
+                buffer.putShort((short) sku.length).put(sku).putInt(availableQuantity);
+                entryCount[0]++;
+            });
+            drain(channel, buffer);
+
+            buffer.putInt(MAGIC).putShort(VERSION).putLong(createdAt.toEpochMilli()).putShort((short) outboxSequences.length);
+            for (long outboxSequence : outboxSequences) {
+                buffer.putLong(outboxSequence);
+            }
+            buffer.putInt(entryCount[0]);
+            buffer.flip();
+            channel.write(buffer, 0);
+            channel.force(true);
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temporary);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Header(outboxSequences, createdAt, entryCount[0]);
+    }
+
+    static Header read(Path source, ObjIntConsumer<String> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < headerSize(0) || buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException("Not an inventory snapshot: " + source);
+            }
+            Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+            long[] outboxSequences = new long[buffer.getShort()];
+            for (int i = 0; i < outboxSequences.length; i++) {
+                outboxSequences[i] = buffer.getLong();
+            }
+            Header header = new Header(outboxSequences, createdAt, buffer.getInt());
+            byte[] sku = new byte[Short.MAX_VALUE];
+            for (int i = 0; i < header.entryCount(); i++) {
+                int length = buffer.getShort();
+                buffer.get(sku, 0, length);
+                consumer.accept(new String(sku, 0, length, StandardCharsets.UTF_8), buffer.getInt());
+            }
+            return header;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated inventory snapshot: " + source, e);
+        }
+    }
+
+    private static int headerSize(int shardCount) {
+        return 4 + 2 + 8 + 2 + shardCount * 8 + 4;
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+}
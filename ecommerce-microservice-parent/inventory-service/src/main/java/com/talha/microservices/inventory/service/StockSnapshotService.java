@@ -0,0 +1,134 @@
+package com.talha.microservices.inventory.service;
+
+import com.talha.microservices.inventory.repository.InventoryJdbcRepository;
+import com.talha.microservices.inventory.repository.OutboxEventRepository;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically writes the available quantity of every SKU to {@code inventory.snapshot.path} and uses the
+ * latest file to pre-warm {@link StockCache} on startup, before the first stock check reaches MySQL.
+ * <p>
+ * Each snapshot records, per shard, the highest outbox sequence published before the table was read. On
+ * load, every SKU with a later or still unpublished outbox event is left out so it is read from the
+ * database instead. A snapshot taken with a different number of shards is ignored.
+ * Snapshots older than {@code inventory.snapshot.max-age} are ignored; keep it well below
+ * {@code inventory.outbox.retention} so the events needed for catch-up have not been purged.
+ */
+@Service
+@Slf4j
+public class StockSnapshotService {
+
+    private final InventoryJdbcRepository inventoryJdbcRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final StockCache stockCache;
+    private final HotSkuStockService hotSkuStockService;
+    private final ShardRouter shardRouter;
+    private final boolean enabled;
+    private final Path path;
+    private final Duration maxAge;
+
+    public StockSnapshotService(InventoryJdbcRepository inventoryJdbcRepository,
+                                OutboxEventRepository outboxEventRepository,
+                                StockCache stockCache,
+                                HotSkuStockService hotSkuStockService,
+                                ShardRouter shardRouter,
+                                @Value("${inventory.snapshot.enabled}") boolean enabled,
+                                @Value("${inventory.snapshot.path}") Path path,
+                                @Value("${inventory.snapshot.max-age}") Duration maxAge) {
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.stockCache = stockCache;
+        this.hotSkuStockService = hotSkuStockService;
+        this.shardRouter = shardRouter;
+        this.enabled = enabled;
+        this.path = path;
+        this.maxAge = maxAge;
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        if (enabled) {
+            loadSnapshot();
+        }
+    }
+
+    /**
+     * Returns the number of SKUs put into the cache.
+     */
+    public int loadSnapshot() {
+        if (!Files.isReadable(path)) {
+            return 0;
+        }
+        long startedAt = System.nanoTime();
+        try {
+            Map<String, Integer> quantities = new HashMap<>();
+            StockSnapshotFile.Header header = StockSnapshotFile.read(path, (skuCode, availableQuantity) -> {
+                if (quantities.size() < stockCache.maximumSize() && !hotSkuStockService.isHot(skuCode)) {
+                    quantities.put(skuCode, availableQuantity);
+                }
+            });
+            if (header.createdAt().isBefore(Instant.now().minus(maxAge))) {
+                log.info("Ignoring inventory snapshot from {}, older than {}", header.createdAt(), maxAge);
+                return 0;
+            }
+            long[] outboxSequences = header.outboxSequences();
+            if (outboxSequences.length != shardRouter.configuredShardCount()) {
+                log.info("Ignoring inventory snapshot of {} shards, {} are configured", outboxSequences.length, shardRouter.configuredShardCount());
+                return 0;
+            }
+            List<String> changed = new ArrayList<>();
+            boolean[] ahead = {false};
+            shardRouter.onEachShard(shard -> {
+                ahead[0] |= outboxSequences[shard] > outboxEventRepository.findMaxPublishedSeq();
+                changed.addAll(inventoryJdbcRepository.findSkuCodesChangedAfter(outboxSequences[shard]));
+            });
+            if (ahead[0]) {
+                log.warn("Ignoring inventory snapshot at outbox sequences {}, ahead of the database", Arrays.toString(outboxSequences));
+                return 0;
+            }
+            changed.forEach(quantities::remove);
+            stockCache.warm(quantities);
+            log.info("Warmed stock cache with {} of {} SKUs from snapshot at outbox sequences {} ({} changed since) in {} ms",
+                    quantities.size(), header.entryCount(), Arrays.toString(outboxSequences), changed.size(),
+                    (System.nanoTime() - startedAt) / 1_000_000);
+            return quantities.size();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable inventory snapshot {}: {}", path, e.getMessage());
+            return 0;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${inventory.snapshot.interval}", fixedDelayString = "${inventory.snapshot.interval}")
+    public void writeSnapshot() {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        try {
+            long[] outboxSequences = new long[shardRouter.configuredShardCount()];
+            shardRouter.onEachShard(shard -> outboxSequences[shard] = outboxEventRepository.findMaxPublishedSeq());
+            StockSnapshotFile.Header header = StockSnapshotFile.write(path, outboxSequences, Instant.now(),
+                    entries -> shardRouter.onEachShard(shard -> inventoryJdbcRepository.streamAvailableQuantities(entries)));
+            log.info("Wrote inventory snapshot of {} SKUs at outbox sequences {} in {} ms", header.entryCount(),
+                    Arrays.toString(outboxSequences), (System.nanoTime() - startedAt) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write inventory snapshot {}: {}", path, e.getMessage());
+        }
+    }
+}
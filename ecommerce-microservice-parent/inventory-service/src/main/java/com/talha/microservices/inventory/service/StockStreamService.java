@@ -0,0 +1,163 @@
+package com.talha.microservices.inventory.service;
+
+import com.talha.microservices.inventory.dto.StockLevelEvent;
+import com.talha.microservices.inventory.exception.ProductNotFoundException;
+import com.talha.microservices.inventory.model.Inventory;
+import com.talha.microservices.inventory.repository.InventoryRepository;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes stock levels to SSE subscribers of {@code /api/inventory/stream}. Mutations only mark their SKU
+ * as changed once the transaction commits; every {@code inventory.stream.dispatch-interval} the changed
+ * SKUs are read back in one query and fanned out, so any number of writes to a SKU between two ticks
+ * costs one read and one event per subscriber. Only changes made through this instance are streamed.
+ */
+@Service
+@Slf4j
+public class StockStreamService {
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final InventoryRepository inventoryRepository;
+    private final HotSkuStockService hotSkuStockService;
+    private final ShardRouter shardRouter;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final long keepAliveNanos;
+    private final Set<String> changedSkuCodes = ConcurrentHashMap.newKeySet();
+    private final Set<StockSubscription> subscriptions = new CopyOnWriteArraySet<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public StockStreamService(InventoryRepository inventoryRepository,
+                              HotSkuStockService hotSkuStockService,
+                              ShardRouter shardRouter,
+                              @Value("${inventory.stream.buffer-size}") int bufferSize,
+                              @Value("${inventory.stream.timeout}") Duration timeout,
+                              @Value("${inventory.stream.keep-alive}") Duration keepAlive) {
+        this.inventoryRepository = inventoryRepository;
+        this.hotSkuStockService = hotSkuStockService;
+        this.shardRouter = shardRouter;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.keepAliveNanos = keepAlive.toNanos();
+    }
+
+    public SseEmitter subscribe(Set<String> skuCodes) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        StockSubscription subscription = new StockSubscription(emitter, skuCodes == null ? Set.of() : Set.copyOf(skuCodes), bufferSize);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        if (skuCodes != null && !skuCodes.isEmpty() && subscription.offer(loadLevels(skuCodes))) {
+            subscription.drainOn(senders);
+        }
+        log.debug("Stock stream subscribed for {} SKUs, {} subscribers", skuCodes == null ? "all" : skuCodes.size(), subscriptions.size());
+        return emitter;
+    }
+
+    public void markChanged(String skuCode) {
+        if (!subscriptions.isEmpty()) {
+            TransactionHooks.afterCommit(() -> changedSkuCodes.add(skuCode));
+        }
+    }
+
+    public void markChanged(Collection<String> skuCodes) {
+        if (!subscriptions.isEmpty() && !skuCodes.isEmpty()) {
+            List<String> copy = List.copyOf(skuCodes);
+            TransactionHooks.afterCommit(() -> changedSkuCodes.addAll(copy));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.stream.dispatch-interval}")
+    public void dispatch() {
+        List<String> changed = new ArrayList<>();
+        for (Iterator<String> it = changedSkuCodes.iterator(); it.hasNext(); ) {
+            changed.add(it.next());
+            it.remove();
+        }
+        subscriptions.removeIf(StockSubscription::isClosed);
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        try {
+            List<StockLevelEvent> levels = changed.isEmpty() ? List.of() : loadLevels(changed);
+            for (StockSubscription subscription : subscriptions) {
+                boolean accepted = subscription.offer(levels);
+                if (!accepted && subscription.isIdleFor(keepAliveNanos)) {
+                    subscription.requestHeartbeat();
+                    accepted = true;
+                }
+                if (accepted) {
+                    subscription.drainOn(senders);
+                }
+            }
+        } catch (RuntimeException e) {
+            changedSkuCodes.addAll(changed);
+            log.error("Failed to dispatch stock changes: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(StockSubscription::close);
+        senders.shutdown();
+    }
+
+    private List<StockLevelEvent> loadLevels(Collection<String> skuCodes) {
+        List<String> rowSkuCodes = new ArrayList<>();
+        List<StockLevelEvent> levels = new ArrayList<>(skuCodes.size());
+        for (String skuCode : skuCodes) {
+            if (hotSkuStockService.isHot(skuCode)) {
+                levels.add(mapToStockLevelEvent(skuCode, hotAvailableStock(skuCode)));
+            } else {
+                rowSkuCodes.add(skuCode);
+            }
+        }
+        shardRouter.groupByShard(rowSkuCodes).forEach((shard, shardSkuCodes) -> {
+            for (int from = 0; from < shardSkuCodes.size(); from += LOOKUP_CHUNK_SIZE) {
+                List<String> chunk = shardSkuCodes.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, shardSkuCodes.size()));
+                Map<String, Inventory> inventories = shardRouter.onShard(shard, () -> inventoryRepository.findBySkuCodeIn(chunk))
+                        .stream()
+                        .collect(Collectors.toMap(Inventory::getSkuCode, Function.identity(), (first, second) -> first));
+                chunk.forEach(skuCode -> {
+                    Inventory inventory = inventories.get(skuCode);
+                    levels.add(mapToStockLevelEvent(skuCode, inventory == null ? 0 : inventory.getAvailableQuantity()));
+                });
+            }
+        });
+        return levels;
+    }
+
+    private int hotAvailableStock(String skuCode) {
+        try {
+            return hotSkuStockService.availableStock(skuCode);
+        } catch (ProductNotFoundException e) {
+            return 0;
+        }
+    }
+
+    private StockLevelEvent mapToStockLevelEvent(String skuCode, int availableQuantity) {
+        return new StockLevelEvent(skuCode, availableQuantity, availableQuantity > 0);
+    }
+}
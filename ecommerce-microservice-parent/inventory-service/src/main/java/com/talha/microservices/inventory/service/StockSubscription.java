@@ -0,0 +1,140 @@
+package com.talha.microservices.inventory.service;
+
+import com.talha.microservices.inventory.dto.StockLevelEvent;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One SSE client. Pending levels are coalesced per SKU, so a slow client only ever receives the latest
+ * level of each SKU and its buffer never holds more than {@code capacity} entries. When a client falls so
+ * far behind that the buffer would grow past that, the buffer is dropped and a {@code resync} event tells
+ * the client to reload the SKUs it cares about from {@code /api/inventory/stock/batch}.
+ */
+class StockSubscription {
+
+    private final SseEmitter emitter;
+    private final Set<String> skuCodes;
+    private final int capacity;
+    private final Map<String, StockLevelEvent> pending = new LinkedHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private boolean resyncRequired;
+    private boolean heartbeatDue;
+    private volatile long lastSentNanos = System.nanoTime();
+    private volatile boolean closed;
+
+    StockSubscription(SseEmitter emitter, Set<String> skuCodes, int capacity) {
+        this.emitter = emitter;
+        this.skuCodes = skuCodes;
+        this.capacity = capacity;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    boolean isIdleFor(long nanos) {
+        return System.nanoTime() - lastSentNanos >= nanos;
+    }
+
+    boolean offer(List<StockLevelEvent> levels) {
+        boolean accepted = false;
+        synchronized (pending) {
+            for (StockLevelEvent level : levels) {
+                if (!skuCodes.isEmpty() && !skuCodes.contains(level.skuCode())) {
+                    continue;
+                }
+                if (pending.size() >= capacity && !pending.containsKey(level.skuCode())) {
+                    pending.clear();
+                    resyncRequired = true;
+                }
+                if (!resyncRequired) {
+                    pending.put(level.skuCode(), level);
+                }
+                accepted = true;
+            }
+        }
+        return accepted;
+    }
+
+    void requestHeartbeat() {
+        synchronized (pending) {
+            heartbeatDue = true;
+        }
+    }
+
+    void drainOn(Executor executor) {
+        if (!closed && draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    void close() {
+        closed = true;
+        emitter.complete();
+    }
+
+    private void drain() {
+        boolean released = false;
+        try {
+            while (!closed) {
+                List<StockLevelEvent> batch;
+                boolean resync;
+                boolean heartbeat;
+                synchronized (pending) {
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                    resync = resyncRequired;
+                    heartbeat = heartbeatDue;
+                    resyncRequired = false;
+                    heartbeatDue = false;
+                }
+                if (batch.isEmpty() && !resync && !heartbeat) {
+                    draining.set(false);
+                    released = true;
+                    if (hasWork() && draining.compareAndSet(false, true)) {
+                        released = false;
+                        continue;
+                    }
+                    return;
+                }
+                if (resync) {
+                    emitter.send(SseEmitter.event().name("resync").data("buffer overflow"));
+                }
+                for (StockLevelEvent level : batch) {
+                    emitter.send(SseEmitter.event().name("stock").id(level.skuCode()).data(level, MediaType.APPLICATION_JSON));
+                }
+                if (heartbeat && batch.isEmpty() && !resync) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                }
+                lastSentNanos = System.nanoTime();
+            }
+        } catch (IOException | IllegalStateException e) {
+            closed = true;
+            emitter.completeWithError(e);
+        } finally {
+            // any other failure must not leave the flag set, or this client never drains again
+            if (!released) {
+                draining.set(false);
+            }
+        }
+    }
+
+    private boolean hasWork() {
+        synchronized (pending) {
+            return !pending.isEmpty() || resyncRequired || heartbeatDue;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.talha.microservices.inventory.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free stock counter for a single hot SKU. The quantity is split across padded stripes so that
+ * concurrent reducers CAS different cache lines. What was sold is recorded by the caller, see
+ * {@link HotSkuStockService}.
+ */
+class StripedStockCounter {
+
+    enum Result { REDUCED, INSUFFICIENT, RETIRED }
+
+    // 16 ints = 64 bytes, keeps every stripe on its own cache line
+    private static final int PADDING = 16;
+
+    private final int stripeCount;
+    private final AtomicIntegerArray stripes;
+    private final LongAdder inFlight = new LongAdder();
+    private volatile boolean retired;
+
+    StripedStockCounter(int stripeCount, int quantity) {
+        this.stripeCount = stripeCount;
+        this.stripes = new AtomicIntegerArray(stripeCount * PADDING);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.set(i * PADDING, quantity / stripeCount + (i < quantity % stripeCount ? 1 : 0));
+        }
+    }
+
+    Result tryReduce(int quantity) {
+        inFlight.increment();
+        try {
+            if (retired) {
+                return Result.RETIRED;
+            }
+            int start = ThreadLocalRandom.current().nextInt(stripeCount);
+            for (int i = 0; i < stripeCount; i++) {
+                int index = ((start + i) % stripeCount) * PADDING;
+                int current;
+                while ((current = stripes.get(index)) >= quantity) {
+                    if (stripes.compareAndSet(index, current, current - quantity)) {
+                        return Result.REDUCED;
+                    }
+                }
+            }
+            return gather(start, quantity);
+        } finally {
+            inFlight.decrement();
+        }
+    }
+
+    Result release(int quantity) {
+        inFlight.increment();
+        try {
+            if (retired) {
+                return Result.RETIRED;
+            }
+            stripes.addAndGet(ThreadLocalRandom.current().nextInt(stripeCount) * PADDING, quantity);
+            return Result.REDUCED;
+        } finally {
+            inFlight.decrement();
+        }
+    }
+
+    int available() {
+        int available = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            available += stripes.get(i * PADDING);
+        }
+        return available;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    /**
+     * Stops the counter from accepting further operations and waits for in-flight ones to finish,
+     * so that callers move on to its replacement with nothing left half-applied on this one.
+     */
+    void retire() {
+        retired = true;
+        while (inFlight.sum() != 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    void reactivate() {
+        retired = false;
+    }
+
+    // No single stripe holds enough; take from several and roll back if the total falls short
+    private Result gather(int start, int quantity) {
+        int[] taken = new int[stripeCount];
+        int remaining = quantity;
+        for (int i = 0; i < stripeCount && remaining > 0; i++) {
+            int stripe = (start + i) % stripeCount;
+            int current;
+            while (remaining > 0 && (current = stripes.get(stripe * PADDING)) > 0) {
+                int take = Math.min(current, remaining);
+                if (stripes.compareAndSet(stripe * PADDING, current, current - take)) {
+                    taken[stripe] += take;
+                    remaining -= take;
+                }
+            }
+        }
+        if (remaining == 0) {
+            return Result.REDUCED;
+        }
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            if (taken[stripe] > 0) {
+                stripes.addAndGet(stripe * PADDING, taken[stripe]);
+            }
+        }
+        return Result.INSUFFICIENT;
+    }
+}
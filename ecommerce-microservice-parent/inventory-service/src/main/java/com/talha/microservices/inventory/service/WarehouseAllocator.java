@@ -0,0 +1,190 @@
+package com.talha.microservices.inventory.service;
+
+import com.talha.microservices.inventory.exception.ProductNotInStockException;
+import com.talha.microservices.inventory.model.AllocationStrategy;
+import com.talha.microservices.inventory.repository.WarehouseStockJdbcRepository;
+import com.talha.microservices.inventory.repository.WarehouseStockJdbcRepository.WarehouseStockRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the per-warehouse rows of {@code t_inventory_warehouse_stock} in step with {@code t_inventory}, whose
+ * quantity stays the pre-aggregated total that stock checks read. Runs inside the caller's transaction.
+ * <p>
+ * This is bookkeeping of where stock is taken from, not a way around lock contention: the caller has already
+ * decided the reduction on the SKU's {@code t_inventory} row and holds its lock, so a reduction locks that
+ * row and at least one warehouse row. SKUs that sell too fast for their row go through
+ * {@link HotSkuStockService} instead.
+ * <p>
+ * A reduction is first taken from a single warehouse, picked by {@code inventory.allocation.strategy} from
+ * an unlocked read and applied with a guarded update. Lines that no single warehouse can cover, or whose
+ * pick lost a race, are split over the SKU's warehouses under row locks; if they hold less than the line in
+ * total, the reduction fails.
+ */
+@Component
+@Slf4j
+public class WarehouseAllocator {
+
+    public record Allocation(String skuCode, String warehouseId, int quantity) {
+    }
+
+    private final WarehouseStockJdbcRepository warehouseStockJdbcRepository;
+    private final AllocationStrategy strategy;
+    private final List<String> warehousePriority;
+    private final String defaultWarehouse;
+
+    public WarehouseAllocator(WarehouseStockJdbcRepository warehouseStockJdbcRepository,
+                              @Value("${inventory.allocation.strategy}") AllocationStrategy strategy,
+                              @Value("${inventory.allocation.warehouse-priority}") List<String> warehousePriority,
+                              @Value("${inventory.allocation.default-warehouse}") String defaultWarehouse) {
+        this.warehouseStockJdbcRepository = warehouseStockJdbcRepository;
+        this.strategy = strategy;
+        this.warehousePriority = warehousePriority;
+        this.defaultWarehouse = defaultWarehouse;
+    }
+
+    public String defaultWarehouse() {
+        return defaultWarehouse;
+    }
+
+    public List<Allocation> allocate(Map<String, Integer> quantitiesBySkuCode) {
+        Map<String, Integer> requested = positive(quantitiesBySkuCode);
+        if (requested.isEmpty()) {
+            return List.of();
+        }
+        Map<String, List<WarehouseStockRow>> rowsBySkuCode = groupBySkuCode(warehouseStockJdbcRepository.findBySkuCodes(requested.keySet(), false));
+        List<WarehouseStockRow> picks = new ArrayList<>();
+        Map<String, Integer> remaining = new LinkedHashMap<>();
+        requested.forEach((skuCode, quantity) -> {
+            WarehouseStockRow pick = pickSingle(rowsBySkuCode.getOrDefault(skuCode, List.of()), quantity);
+            if (pick == null) {
+                remaining.put(skuCode, quantity);
+            } else {
+                picks.add(pick);
+            }
+        });
+
+        List<Allocation> allocations = new ArrayList<>();
+        if (!picks.isEmpty()) {
+            int[] updateCounts = warehouseStockJdbcRepository.tryDecrement(
+                    picks.stream().map(WarehouseStockRow::id).toList(),
+                    picks.stream().map(pick -> requested.get(pick.skuCode())).toList());
+            for (int i = 0; i < updateCounts.length; i++) {
+                WarehouseStockRow pick = picks.get(i);
+                if (updateCounts[i] == 0) {
+                    remaining.put(pick.skuCode(), requested.get(pick.skuCode()));
+                } else {
+                    allocations.add(new Allocation(pick.skuCode(), pick.warehouseId(), requested.get(pick.skuCode())));
+                }
+            }
+        }
+        if (!remaining.isEmpty()) {
+            allocations.addAll(split(remaining));
+        }
+        log.debug("Allocated {}", allocations);
+        return allocations;
+    }
+
+    public void restock(Map<String, Integer> quantitiesBySkuCode, String warehouseId) {
+        Map<String, Integer> added = positive(quantitiesBySkuCode);
+        if (!added.isEmpty()) {
+            warehouseStockJdbcRepository.increment(warehouseId == null ? defaultWarehouse : warehouseId, added);
+        }
+    }
+
+    /**
+     * Applies signed changes of the total: decreases are allocated, increases go to the default warehouse.
+     */
+    public void apply(Map<String, Integer> deltasBySkuCode) {
+        Map<String, Integer> decreases = new LinkedHashMap<>();
+        deltasBySkuCode.forEach((skuCode, delta) -> {
+            if (delta != null && delta < 0) {
+                decreases.put(skuCode, -delta);
+            }
+        });
+        allocate(decreases);
+        restock(deltasBySkuCode, null);
+    }
+
+    public void rename(String skuCode, String newSkuCode) {
+        if (!skuCode.equals(newSkuCode)) {
+            warehouseStockJdbcRepository.renameSkuCode(skuCode, newSkuCode);
+        }
+    }
+
+    public void remove(Collection<String> skuCodes) {
+        if (!skuCodes.isEmpty()) {
+            warehouseStockJdbcRepository.deleteBySkuCodes(skuCodes);
+        }
+    }
+
+    private List<Allocation> split(Map<String, Integer> remaining) {
+        Map<String, List<WarehouseStockRow>> lockedRows = groupBySkuCode(warehouseStockJdbcRepository.findBySkuCodes(remaining.keySet(), true));
+        Map<Long, Integer> quantitiesById = new LinkedHashMap<>();
+        List<Allocation> allocations = new ArrayList<>();
+        remaining.forEach((skuCode, quantity) -> {
+            List<WarehouseStockRow> rows = lockedRows.getOrDefault(skuCode, List.of()).stream().sorted(splitOrder()).toList();
+            int left = quantity;
+            for (WarehouseStockRow row : rows) {
+                int taken = Math.min(left, Math.max(row.quantity(), 0));
+                if (taken > 0) {
+                    quantitiesById.merge(row.id(), taken, Integer::sum);
+                    allocations.add(new Allocation(skuCode, row.warehouseId(), taken));
+                    left -= taken;
+                }
+            }
+            if (left > 0) {
+                // Warehouse rows hold less than the total allowed; no warehouse may go negative
+                throw new ProductNotInStockException("Warehouse stock of SkuCode: " + skuCode + " is " + left + " short of its total");
+            }
+        });
+        warehouseStockJdbcRepository.decrement(quantitiesById);
+        return allocations;
+    }
+
+    private WarehouseStockRow pickSingle(List<WarehouseStockRow> rows, int quantity) {
+        List<WarehouseStockRow> candidates = rows.stream().filter(row -> row.quantity() >= quantity).toList();
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (strategy == AllocationStrategy.SPREAD) {
+            return candidates.get(ThreadLocalRandom.current().nextInt(candidates.size()));
+        }
+        return candidates.stream().min(splitOrder()).orElseThrow();
+    }
+
+    private Comparator<WarehouseStockRow> splitOrder() {
+        Comparator<WarehouseStockRow> mostStock = Comparator.comparingInt(WarehouseStockRow::quantity).reversed();
+        if (strategy != AllocationStrategy.PRIORITY) {
+            return mostStock;
+        }
+        return Comparator.<WarehouseStockRow>comparingInt(row -> {
+            int index = warehousePriority.indexOf(row.warehouseId());
+            return index < 0 ? Integer.MAX_VALUE : index;
+        }).thenComparing(mostStock);
+    }
+
+    private static Map<String, Integer> positive(Map<String, Integer> quantitiesBySkuCode) {
+        Map<String, Integer> positive = new LinkedHashMap<>();
+        quantitiesBySkuCode.forEach((skuCode, quantity) -> {
+            if (quantity != null && quantity > 0) {
+                positive.put(skuCode, quantity);
+            }
+        });
+        return positive;
+    }
+
+    private static Map<String, List<WarehouseStockRow>> groupBySkuCode(List<WarehouseStockRow> rows) {
+        return rows.stream().collect(Collectors.groupingBy(WarehouseStockRow::skuCode));
+    }
+}
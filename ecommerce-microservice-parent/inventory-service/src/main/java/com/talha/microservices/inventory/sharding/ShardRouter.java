@@ -0,0 +1,176 @@
+package com.talha.microservices.inventory.sharding;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Maps SKUs to shards and selects the shard used by the next connection of the current thread. With
+ * sharding disabled there is a single shard and every method is a pass-through.
+ * <p>
+ * The primary datasource hands out connections lazily, so a transaction is bound to a shard by its first
+ * statement, not by where it began: {@link #route(String)} must be called before the first query of a
+ * transaction, and a transaction never spans shards. Work on several shards uses one transaction per
+ * shard through {@link #inTransaction(int, Supplier)}; nesting them keeps the rows of every shard locked
+ * until the innermost one has run, and commits innermost first.
+ * <p>
+ * Each shard allocates inventory ids from its own range starting at {@code shard << }{@value #ID_RANGE_BITS},
+ * so an inventory id identifies its shard.
+ */
+@Component
+public class ShardRouter {
+
+    public static final int ID_RANGE_BITS = 40;
+
+    private final int shardCount;
+    private final int configuredShardCount;
+    private final TransactionTemplate joinTransaction;
+    private final TransactionTemplate newTransaction;
+
+    public ShardRouter(ShardingProperties shardingProperties, PlatformTransactionManager transactionManager) {
+        if (shardingProperties.isEnabled()) {
+            if (shardingProperties.getShards().isEmpty()) {
+                throw new IllegalStateException("inventory.sharding.enabled requires at least one inventory.sharding.shards entry");
+            }
+            this.configuredShardCount = shardingProperties.getShards().size();
+            this.shardCount = shardingProperties.getActiveShards() == null
+                    ? configuredShardCount
+                    : Math.min(shardingProperties.getActiveShards(), configuredShardCount);
+        } else {
+            this.configuredShardCount = 1;
+            this.shardCount = 1;
+        }
+        this.joinTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isSharded() {
+        return configuredShardCount > 1;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int configuredShardCount() {
+        return configuredShardCount;
+    }
+
+    public int shardOf(String skuCode) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        int hash = skuCode.hashCode();
+        hash = (hash ^ (hash >>> 16)) * 0x45d9f3b;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shardCount);
+    }
+
+    public int shardOfId(long id) {
+        return (int) Math.min(id >>> ID_RANGE_BITS, configuredShardCount - 1);
+    }
+
+    /**
+     * Prefixes {@code key} with its shard so that lookups by key can be routed, e.g. reservation ids.
+     */
+    public String scopedKey(int shard, String key) {
+        return isSharded() ? shard + ":" + key : key;
+    }
+
+    public int shardOfKey(String scopedKey) {
+        int separator = scopedKey.indexOf(':');
+        if (!isSharded() || separator <= 0) {
+            return 0;
+        }
+        try {
+            return Math.min(Integer.parseInt(scopedKey.substring(0, separator)), configuredShardCount - 1);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public Map<Integer, List<String>> groupByShard(Collection<String> skuCodes) {
+        Map<Integer, List<String>> skuCodesByShard = new TreeMap<>();
+        skuCodes.forEach(skuCode -> skuCodesByShard.computeIfAbsent(shardOf(skuCode), shard -> new ArrayList<>()).add(skuCode));
+        return skuCodesByShard;
+    }
+
+    public void route(String skuCode) {
+        routeTo(shardOf(skuCode));
+    }
+
+    /**
+     * Binds the rest of the current transaction to {@code shard}. The binding is undone when the transaction
+     * completes, so it may only be used inside one; use {@link #onShard(int, Supplier)} everywhere else.
+     */
+    public void routeTo(int shard) {
+        if (!isSharded()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Routing to shard " + shard + " requires an active transaction");
+        }
+        Integer previous = ShardContext.get();
+        ShardContext.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ShardContext.set(previous);
+            }
+        });
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (!isSharded()) {
+            return action.get();
+        }
+        Integer previous = ShardContext.get();
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    public void onEachShard(IntConsumer action) {
+        for (int shard = 0; shard < configuredShardCount; shard++) {
+            int current = shard;
+            onShard(current, () -> {
+                action.accept(current);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Runs {@code action} in a transaction on {@code shard}, joining the current transaction when it is
+     * already bound to that shard and suspending it otherwise.
+     */
+    public <T> T inTransaction(int shard, Supplier<T> action) {
+        boolean join = !isSharded()
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || ShardContext.current() == shard;
+        return onShard(shard, () -> (join ? joinTransaction : newTransaction).execute(status -> action.get()));
+    }
+
+    /**
+     * Runs {@code action} in a new transaction on {@code shard}, e.g. from a completion callback of another
+     * transaction.
+     */
+    public <T> T inNewTransaction(int shard, Supplier<T> action) {
+        return onShard(shard, () -> newTransaction.execute(status -> action.get()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.talha.microservices.inventory.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "inventory.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+    /**
+     * Number of shards SKUs are hashed over, defaults to all configured shards. Set it lower than the number
+     * of {@link #shards} to drain the last ones with the resharding run before removing them.
+     */
+    private Integer activeShards;
+    private boolean reshardOnStartup;
+    private int reshardBatchSize = 500;
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
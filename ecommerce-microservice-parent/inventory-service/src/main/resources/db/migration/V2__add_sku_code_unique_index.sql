@@ -0,0 +1 @@
+CREATE UNIQUE INDEX `uk_inventory_sku_code` ON `t_inventory` (`sku_code`);
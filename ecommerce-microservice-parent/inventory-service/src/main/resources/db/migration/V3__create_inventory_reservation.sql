@@ -0,0 +1,17 @@
+ALTER TABLE `t_inventory`
+    ADD COLUMN `reserved_quantity` int(11) NOT NULL DEFAULT 0;
+
+CREATE TABLE `t_inventory_reservation`
+(
+    `id`             bigint(20)   NOT NULL AUTO_INCREMENT,
+    `reservation_id` varchar(36)  NOT NULL,
+    `sku_code`       varchar(255) NOT NULL,
+    `quantity`       int(11)      NOT NULL,
+    `stock_deducted` bit(1)       NOT NULL DEFAULT 0,
+    `status`         varchar(16)  NOT NULL,
+    `expires_at`     datetime(6)  NOT NULL,
+    `created_at`     datetime(6)  NOT NULL,
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_reservation_reservation_id` (`reservation_id`),
+    KEY `idx_reservation_status_expires_at` (`status`, `expires_at`)
+);
@@ -0,0 +1,13 @@
+CREATE TABLE `t_inventory_outbox`
+(
+    `id`             bigint(20)   NOT NULL AUTO_INCREMENT,
+    `sku_code`       varchar(255) NOT NULL,
+    `event_type`     varchar(32)  NOT NULL,
+    `quantity`       int(11)      DEFAULT NULL,
+    `created_at`     datetime(6)  NOT NULL,
+    `published_seq`  bigint(20)   DEFAULT NULL,
+    `published_at`   datetime(6)  DEFAULT NULL,
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_outbox_published_seq` (`published_seq`),
+    KEY `idx_outbox_published_at` (`published_at`)
+);
@@ -0,0 +1,13 @@
+CREATE TABLE `t_inventory_warehouse_stock`
+(
+    `id`           bigint(20)   NOT NULL AUTO_INCREMENT,
+    `sku_code`     varchar(255) NOT NULL,
+    `warehouse_id` varchar(64)  NOT NULL,
+    `quantity`     int(11)      NOT NULL DEFAULT 0,
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_warehouse_stock_sku_code_warehouse_id` (`sku_code`, `warehouse_id`)
+);
+
+INSERT INTO `t_inventory_warehouse_stock` (`sku_code`, `warehouse_id`, `quantity`)
+SELECT `sku_code`, 'default', `quantity`
+FROM `t_inventory`;
@@ -0,0 +1,7 @@
+CREATE TABLE `t_inventory_applied_request`
+(
+    `request_key` binary(16)  NOT NULL,
+    `applied_at`  datetime(6) NOT NULL,
+    PRIMARY KEY (`request_key`),
+    KEY `idx_applied_request_applied_at` (`applied_at`)
+);
@@ -0,0 +1,2 @@
+ALTER TABLE `t_inventory_outbox`
+    ADD COLUMN `claimed_until` datetime(6) DEFAULT NULL;
@@ -0,0 +1,9 @@
+CREATE TABLE `t_inventory_hot_sku_journal`
+(
+    `id`         bigint(20)   NOT NULL AUTO_INCREMENT,
+    `sku_code`   varchar(255) NOT NULL,
+    `quantity`   int(11)      NOT NULL,
+    `created_at` datetime(6)  NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `idx_hot_sku_journal_sku_code` (`sku_code`)
+);
@@ -1,30 +1,97 @@
 package com.talha.microservices.inventory;
 
+import com.talha.microservices.inventory.dto.BulkImportResponse;
+import com.talha.microservices.inventory.dto.InventoryChangeEvent;
 import com.talha.microservices.inventory.dto.InventoryRequest;
 import com.talha.microservices.inventory.dto.InventoryResponse;
+import com.talha.microservices.inventory.dto.ReservationRequest;
+import com.talha.microservices.inventory.dto.ReservationResponse;
+import com.talha.microservices.inventory.dto.StockLineRequest;
+import com.talha.microservices.inventory.dto.StockLineResponse;
+import com.talha.microservices.inventory.dto.WarehouseStockRequest;
+import com.talha.microservices.inventory.dto.WarehouseStockResponse;
+import com.talha.microservices.inventory.exception.InvalidRequestException;
+import com.talha.microservices.inventory.exception.ProductNotInStockException;
+import com.talha.microservices.inventory.model.Inventory;
+import com.talha.microservices.inventory.model.InventoryEventType;
+import com.talha.microservices.inventory.model.ReservationStatus;
+import com.talha.microservices.inventory.repository.InventoryJdbcRepository;
+import com.talha.microservices.inventory.repository.InventoryRepository;
+import com.talha.microservices.inventory.service.HotSkuStockService;
+import com.talha.microservices.inventory.service.InventoryService;
+import com.talha.microservices.inventory.service.OutboxRelay;
+import com.talha.microservices.inventory.service.StockCache;
+import com.talha.microservices.inventory.service.StockSnapshotService;
+import com.talha.microservices.inventory.service.WarehouseAllocator;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.MySQLContainer;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"inventory.hot-sku.enabled=true",
+		"inventory.hot-sku.sku-codes=flash_sku,flash_missing,flash_rollback,flash_invalid,flash_update",
+		"inventory.snapshot.path=target/test-snapshot/inventory-stock.bin"
+})
 class InventoryServiceApplicationTests {
 
+	private static final Logger log = LoggerFactory.getLogger(InventoryServiceApplicationTests.class);
+
 	@ServiceConnection
 	static MySQLContainer mySQLContainer = new MySQLContainer("mysql:8.3.0");
 	@LocalServerPort
 	private Integer port;
+	@Autowired
+	private InventoryService inventoryService;
+	@Autowired
+	private InventoryRepository inventoryRepository;
+	@Autowired
+	private HotSkuStockService hotSkuStockService;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private OutboxRelay outboxRelay;
+	@Autowired
+	private InventoryJdbcRepository inventoryJdbcRepository;
+	@Autowired
+	private StockCache stockCache;
+	@Autowired
+	private WarehouseAllocator warehouseAllocator;
+	@Autowired
+	private StockSnapshotService stockSnapshotService;
 
 	@BeforeEach
 	void setup() {
@@ -65,6 +132,177 @@ class InventoryServiceApplicationTests {
 
 	}
 
+	@Test
+	void shouldPageInventoryByKeysetAndExportAsNdjson() {
+		inventoryRepository.save(Inventory.builder().skuCode("page_a").quantity(1).build());
+		inventoryRepository.save(Inventory.builder().skuCode("page_b").quantity(2).build());
+
+		List<InventoryResponse> firstPage = RestAssured.given()
+				.when()
+				.get("/api/inventory?limit=1")
+				.then()
+				.statusCode(200)
+				.extract().response().jsonPath().getList(".", InventoryResponse.class);
+		assertThat(firstPage.size(), is(1));
+
+		List<InventoryResponse> secondPage = RestAssured.given()
+				.when()
+				.get("/api/inventory?afterId={afterId}&limit=1", firstPage.get(0).id())
+				.then()
+				.statusCode(200)
+				.extract().response().jsonPath().getList(".", InventoryResponse.class);
+		assertThat(secondPage.size(), is(1));
+		assertThat(secondPage.get(0).id() > firstPage.get(0).id(), is(true));
+
+		for (int limit : new int[]{0, -5}) {
+			List<InventoryResponse> clampedPage = RestAssured.given()
+					.when()
+					.get("/api/inventory?limit={limit}", limit)
+					.then()
+					.statusCode(200)
+					.extract().response().jsonPath().getList(".", InventoryResponse.class);
+			assertThat(clampedPage.size(), is(1));
+		}
+
+		String export = RestAssured.given()
+				.when()
+				.get("/api/inventory/export")
+				.then()
+				.statusCode(200)
+				.extract().response().asString();
+		assertThat(export.lines().count(), is(inventoryRepository.count()));
+	}
+
+	@Test
+	void shouldBulkUpsertAndAdjustStock() {
+		BulkImportResponse upsert = RestAssured.given()
+				.contentType("text/csv")
+				.body("skuCode,quantity\nbulk_a,10\nbulk_b,20\nbulk_c,not-a-number\nbulk_a,10\n")
+				.when()
+				.post("/api/inventory/bulk")
+				.then()
+				.log().all()
+				.statusCode(200)
+				.extract().response().as(BulkImportResponse.class);
+		assertThat(upsert.rowsApplied(), is(2L));
+		assertThat(upsert.failedLines(), is(1L));
+		assertThat(upsert.errors().get(0).lineNumber(), is(4L));
+
+		BulkImportResponse adjust = RestAssured.given()
+				.contentType("application/x-ndjson")
+				.body("{\"skuCode\":\"bulk_a\",\"quantity\":5}\n{\"skuCode\":\"bulk_b\",\"quantity\":-25}\n")
+				.when()
+				.post("/api/inventory/bulk?mode=ADJUST")
+				.then()
+				.log().all()
+				.statusCode(200)
+				.extract().response().as(BulkImportResponse.class);
+		assertThat(adjust.rowsApplied(), is(1L));
+		assertThat(adjust.errors().get(0).skuCode(), is("bulk_b"));
+		assertThat(inventoryRepository.findBySkuCode("bulk_a").orElseThrow().getQuantity(), is(15));
+		assertThat(inventoryRepository.findBySkuCode("bulk_b").orElseThrow().getQuantity(), is(20));
+
+		RestAssured.given()
+				.contentType(ContentType.JSON)
+				.body(new ReservationRequest("bulk_a", 6, null))
+				.when()
+				.post("/api/inventory/reservations")
+				.then()
+				.statusCode(201);
+		BulkImportResponse belowReserved = RestAssured.given()
+				.contentType("text/csv")
+				.body("skuCode,quantity\nbulk_a,4\nbulk_b,7\n")
+				.when()
+				.post("/api/inventory/bulk")
+				.then()
+				.statusCode(200)
+				.extract().response().as(BulkImportResponse.class);
+		assertThat(belowReserved.rowsApplied(), is(1L));
+		assertThat(belowReserved.errors().get(0).skuCode(), is("bulk_a"));
+		assertThat(belowReserved.errors().get(0).lineNumber(), is(2L));
+		assertThat(inventoryRepository.findBySkuCode("bulk_a").orElseThrow().getQuantity(), is(15));
+		assertThat(inventoryRepository.findBySkuCode("bulk_b").orElseThrow().getQuantity(), is(7));
+	}
+
+	@Test
+	void shouldPublishInventoryChangesInCommitOrder() {
+		InventoryResponse created = inventoryService.addInventory(new InventoryRequest("outbox_sku", 10));
+		inventoryService.reduceStock("outbox_sku", 3);
+		inventoryService.reduceStock(List.of(new StockLineRequest("outbox_sku", 2)));
+		inventoryService.deleteInventoryById(created.id());
+		outboxRelay.relay();
+
+		List<InventoryChangeEvent> changes = List.of(RestAssured.given()
+				.queryParam("afterSequence", 0)
+				.queryParam("limit", 1000)
+				.when()
+				.get("/api/inventory/changes")
+				.then()
+				.statusCode(200)
+				.extract()
+				.as(InventoryChangeEvent[].class));
+		List<InventoryChangeEvent> skuChanges = changes.stream()
+				.filter(change -> change.skuCode().equals("outbox_sku"))
+				.toList();
+
+		assertThat(skuChanges.stream().map(InventoryChangeEvent::type).toList(), is(List.of(
+				InventoryEventType.CREATED, InventoryEventType.REDUCED, InventoryEventType.REDUCED, InventoryEventType.DELETED)));
+		assertThat(skuChanges.get(1).quantity(), is(3));
+		for (int i = 1; i < changes.size(); i++) {
+			assertThat(changes.get(i).sequence(), is(changes.get(i - 1).sequence() + 1));
+		}
+
+		List<InventoryChangeEvent> clamped = List.of(RestAssured.given()
+				.queryParam("afterSequence", 0)
+				.queryParam("limit", 0)
+				.when()
+				.get("/api/inventory/changes")
+				.then()
+				.statusCode(200)
+				.extract()
+				.as(InventoryChangeEvent[].class));
+		assertThat(clamped.size(), is(1));
+	}
+
+	@Test
+	void shouldWarmStockCacheFromSnapshot() {
+		int skus = 5000;
+		Map<String, Integer> quantities = new LinkedHashMap<>();
+		for (int i = 0; i < skus; i++) {
+			quantities.put("snapshot_sku_" + i, 10);
+		}
+		transactionTemplate.executeWithoutResult(status -> {
+			inventoryJdbcRepository.upsertStock(quantities);
+			warehouseAllocator.restock(quantities, null);
+		});
+		outboxRelay.relay();
+		stockSnapshotService.writeSnapshot();
+		inventoryService.reduceStock("snapshot_sku_0", 10);
+
+		stockCache.invalidateAll();
+		long coldNanos = timeStockChecks(quantities.keySet());
+
+		stockCache.invalidateAll();
+		long warmStartedAt = System.nanoTime();
+		int warmed = stockSnapshotService.loadSnapshot();
+		long loadNanos = System.nanoTime() - warmStartedAt;
+		long warmNanos = timeStockChecks(quantities.keySet());
+
+		assertThat(warmed, greaterThanOrEqualTo(skus - 1));
+		assertThat(inventoryService.isInStock("snapshot_sku_0", 1), is(false));
+		assertThat(inventoryService.isInStock("snapshot_sku_1", 10), is(true));
+		log.info("Cold start: first {} stock checks took {} ms", skus, coldNanos / 1_000_000);
+		log.info("Snapshot start: load took {} ms, first {} stock checks took {} ms", loadNanos / 1_000_000, skus, warmNanos / 1_000_000);
+	}
+
+	private long timeStockChecks(Iterable<String> skuCodes) {
+		long startedAt = System.nanoTime();
+		for (String skuCode : skuCodes) {
+			inventoryService.isInStock(skuCode, 1);
+		}
+		return System.nanoTime() - startedAt;
+	}
+
 	@Test
 	void shouldDeleteInventory() {
 		Long id = 1L;
@@ -77,4 +315,390 @@ class InventoryServiceApplicationTests {
 				.extract().response().asString();
 		assertThat(response, is("Inventory deleted successfully"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	void shouldKeepCachedStockInSyncWithReductions() {
+		inventoryService.addInventory(new InventoryRequest("cached_sku", 3));
+
+		assertThat(inventoryService.isInStock("cached_sku", 3), is(true));
+		inventoryService.reduceStock("cached_sku", 2);
+		assertThat(inventoryService.isInStock("cached_sku", 3), is(false));
+		assertThat(inventoryService.isInStock("cached_sku", 1), is(true));
+		assertThat(inventoryService.isInStock("unknown_sku", 0), is(false));
+	}
+
+	@Test
+	void shouldHoldStockForReservationsUntilReleasedOrExpired() throws Exception {
+		inventoryService.addInventory(new InventoryRequest("reserved_sku", 5));
+
+		ReservationResponse reservation = RestAssured.given()
+				.contentType(ContentType.JSON)
+				.body(new ReservationRequest("reserved_sku", 3, null))
+				.when()
+				.post("/api/inventory/reservations")
+				.then()
+				.log().all()
+				.statusCode(201)
+				.extract().response().as(ReservationResponse.class);
+		assertThat(reservation.status(), is(ReservationStatus.ACTIVE));
+		assertThat(inventoryService.isInStock("reserved_sku", 3), is(false));
+
+		RestAssured.given()
+				.when()
+				.post("/api/inventory/reservations/{reservationId}/release", reservation.reservationId())
+				.then()
+				.statusCode(200);
+		assertThat(inventoryService.isInStock("reserved_sku", 5), is(true));
+
+		RestAssured.given()
+				.contentType(ContentType.JSON)
+				.body(new ReservationRequest("reserved_sku", 5, 1L))
+				.when()
+				.post("/api/inventory/reservations")
+				.then()
+				.statusCode(201);
+		assertThat(inventoryService.isInStock("reserved_sku", 1), is(false));
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!inventoryService.isInStock("reserved_sku", 5) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(200);
+		}
+		assertThat(inventoryService.isInStock("reserved_sku", 5), is(true));
+		assertThat(inventoryRepository.findBySkuCode("reserved_sku").orElseThrow().getReservedQuantity(), is(0));
+
+		for (ReservationRequest invalid : List.of(new ReservationRequest("reserved_sku", 0, null),
+				new ReservationRequest("reserved_sku", 1, 0L))) {
+			RestAssured.given()
+					.contentType(ContentType.JSON)
+					.body(invalid)
+					.when()
+					.post("/api/inventory/reservations")
+					.then()
+					.statusCode(400);
+		}
+	}
+
+	@Test
+	void shouldReduceStockInBatchAllOrNothing() {
+		inventoryService.addInventory(new InventoryRequest("batch_a", 5));
+		inventoryService.addInventory(new InventoryRequest("batch_b", 1));
+
+		List<StockLineResponse> failedLines = RestAssured.given()
+				.contentType(ContentType.JSON)
+				.body(List.of(new StockLineRequest("batch_a", 2), new StockLineRequest("batch_b", 3)))
+				.when()
+				.post("/api/inventory/reduce/batch")
+				.then()
+				.log().all()
+				.statusCode(400)
+				.extract().response().jsonPath().getList(".", StockLineResponse.class);
+		assertThat(failedLines.size(), is(1));
+		assertThat(failedLines.get(0).skuCode(), is("batch_b"));
+		assertThat(inventoryRepository.findBySkuCode("batch_a").orElseThrow().getQuantity(), is(5));
+
+		List<StockLineResponse> reducedLines = RestAssured.given()
+				.contentType(ContentType.JSON)
+				.body(List.of(new StockLineRequest("batch_a", 2), new StockLineRequest("batch_b", 1)))
+				.when()
+				.post("/api/inventory/reduce/batch")
+				.then()
+				.log().all()
+				.statusCode(200)
+				.extract().response().jsonPath().getList(".", StockLineResponse.class);
+		assertThat(reducedLines.size(), is(2));
+		assertThat(inventoryRepository.findBySkuCode("batch_a").orElseThrow().getQuantity(), is(3));
+		assertThat(inventoryRepository.findBySkuCode("batch_b").orElseThrow().getQuantity(), is(0));
+
+		RestAssured.given()
+				.contentType(ContentType.JSON)
+				.body("[{\"skuCode\": \"batch_a\"}]")
+				.when()
+				.post("/api/inventory/reduce/batch")
+				.then()
+				.statusCode(400);
+		assertThat(inventoryRepository.findBySkuCode("batch_a").orElseThrow().getQuantity(), is(3));
+	}
+
+	@Test
+	void shouldAllocateReductionsAcrossWarehouses() {
+		inventoryService.addInventory(new InventoryRequest("warehouse_sku", 5, "ist"));
+		RestAssured.given()
+				.contentType(ContentType.JSON)
+				.body(new WarehouseStockRequest("warehouse_sku", "ank", 10))
+				.when()
+				.put("/api/inventory/warehouse-stock")
+				.then()
+				.log().all()
+				.statusCode(200);
+		assertThat(inventoryRepository.findBySkuCode("warehouse_sku").orElseThrow().getQuantity(), is(15));
+
+		inventoryService.reduceStock("warehouse_sku", 6);
+		inventoryService.reduceStock("warehouse_sku", 7);
+
+		Map<String, Integer> byWarehouse = new LinkedHashMap<>();
+		RestAssured.given()
+				.when()
+				.get("/api/inventory/warehouse_sku/warehouses")
+				.then()
+				.log().all()
+				.statusCode(200)
+				.extract().response().jsonPath().getList(".", WarehouseStockResponse.class)
+				.forEach(stock -> byWarehouse.put(stock.warehouseId(), stock.quantity()));
+		assertThat(byWarehouse.get("ank"), is(2));
+		assertThat(byWarehouse.get("ist"), is(0));
+		assertThat(inventoryRepository.findBySkuCode("warehouse_sku").orElseThrow().getQuantity(), is(2));
+
+		for (WarehouseStockRequest invalid : List.of(new WarehouseStockRequest("warehouse_sku", "ank", -1),
+				new WarehouseStockRequest("warehouse_sku", null, 1))) {
+			RestAssured.given()
+					.contentType(ContentType.JSON)
+					.body(invalid)
+					.when()
+					.put("/api/inventory/warehouse-stock")
+					.then()
+					.statusCode(400);
+		}
+		assertThat(inventoryRepository.findBySkuCode("warehouse_sku").orElseThrow().getQuantity(), is(2));
+	}
+
+	@Test
+	void shouldApplyReplayedReduceRequestOnce() {
+		inventoryService.addInventory(new InventoryRequest("replayed_sku", 10));
+		String requestId = UUID.randomUUID().toString();
+
+		for (int attempt = 0; attempt < 3; attempt++) {
+			RestAssured.given()
+					.queryParam("skuCode", "replayed_sku")
+					.queryParam("quantity", 4)
+					.queryParam("requestId", requestId)
+					.when()
+					.post("/api/inventory/reduce")
+					.then()
+					.log().all()
+					.statusCode(200);
+		}
+		assertThat(inventoryRepository.findBySkuCode("replayed_sku").orElseThrow().getQuantity(), is(6));
+
+		inventoryService.reduceStock("replayed_sku", 4, UUID.randomUUID().toString());
+		assertThat(inventoryRepository.findBySkuCode("replayed_sku").orElseThrow().getQuantity(), is(2));
+	}
+
+	@Test
+	void shouldRejectNonPositiveReduceQuantities() {
+		inventoryService.addInventory(new InventoryRequest("invalid_reduce_sku", 5));
+		inventoryService.addInventory(new InventoryRequest("flash_invalid", 5));
+
+		for (String skuCode : List.of("invalid_reduce_sku", "flash_invalid")) {
+			for (int quantity : new int[]{-3, 0}) {
+				RestAssured.given()
+						.queryParam("skuCode", skuCode)
+						.queryParam("quantity", quantity)
+						.queryParam("requestId", UUID.randomUUID().toString())
+						.when()
+						.post("/api/inventory/reduce")
+						.then()
+						.statusCode(400);
+			}
+		}
+		assertThrows(InvalidRequestException.class, () -> inventoryService.reduceStock("invalid_reduce_sku", null, null));
+		assertThat(inventoryRepository.findBySkuCode("invalid_reduce_sku").orElseThrow().getQuantity(), is(5));
+		assertThat(hotSkuStockService.availableStock("flash_invalid"), is(5));
+	}
+
+	@Test
+	void shouldUpdateHotSkuFromItsCurrentQuantity() {
+		Long id = inventoryService.addInventory(new InventoryRequest("flash_update", 10)).id();
+		inventoryService.reduceStock("flash_update", 3, UUID.randomUUID().toString());
+
+		RestAssured.given()
+				.contentType(ContentType.JSON)
+				.body(new InventoryRequest("flash_update", 20))
+				.when()
+				.put("/api/inventory/update/" + id)
+				.then()
+				.statusCode(200);
+
+		assertThat(inventoryRepository.findBySkuCode("flash_update").orElseThrow().getQuantity(), is(20));
+		assertThat(inventoryService.getWarehouseStock("flash_update").stream().mapToInt(WarehouseStockResponse::quantity).sum(), is(20));
+		assertThat(hotSkuStockService.availableStock("flash_update"), is(20));
+	}
+
+	@Test
+	void shouldRejectInvalidInventoryUpdates() {
+		Long id = inventoryService.addInventory(new InventoryRequest("update_reserved_sku", 10)).id();
+		RestAssured.given()
+				.contentType(ContentType.JSON)
+				.body(new ReservationRequest("update_reserved_sku", 6, null))
+				.when()
+				.post("/api/inventory/reservations")
+				.then()
+				.statusCode(201);
+
+		for (InventoryRequest invalid : List.of(new InventoryRequest("update_reserved_sku", null),
+				new InventoryRequest("update_reserved_sku", -1),
+				new InventoryRequest("update_reserved_sku", 5))) {
+			RestAssured.given()
+					.contentType(ContentType.JSON)
+					.body(invalid)
+					.when()
+					.put("/api/inventory/update/" + id)
+					.then()
+					.statusCode(400);
+		}
+		assertThat(inventoryRepository.findBySkuCode("update_reserved_sku").orElseThrow().getQuantity(), is(10));
+	}
+
+	@Test
+	void shouldNotOversellUnderConcurrentReduceStock() throws Exception {
+		int stock = 500;
+		int threads = 16;
+		int attemptsPerThread = 50;
+
+		inventoryService.addInventory(new InventoryRequest("stress_atomic", stock));
+		AtomicInteger atomicSold = new AtomicInteger();
+		long atomicNanos = runConcurrently(threads, attemptsPerThread, () -> {
+			try {
+				inventoryService.reduceStock("stress_atomic", 1);
+				atomicSold.incrementAndGet();
+			} catch (ProductNotInStockException ignored) {
+				// expected once the stock is exhausted
+			}
+		});
+
+		assertThat(atomicSold.get(), is(stock));
+		assertThat(inventoryRepository.findBySkuCode("stress_atomic").orElseThrow().getQuantity(), is(0));
+
+		// Previous read-check-save implementation, kept here only as a throughput and correctness baseline
+		inventoryRepository.save(Inventory.builder().skuCode("stress_legacy").quantity(stock).build());
+		AtomicInteger legacySold = new AtomicInteger();
+		long legacyNanos = runConcurrently(threads, attemptsPerThread, () -> transactionTemplate.executeWithoutResult(status -> {
+			Inventory inventory = inventoryRepository.findBySkuCode("stress_legacy").orElseThrow();
+			if (inventory.getQuantity() >= 1) {
+				inventory.setQuantity(inventory.getQuantity() - 1);
+				inventoryRepository.save(inventory);
+				legacySold.incrementAndGet();
+			}
+		}));
+
+		log.info("Guarded update: {} decrements/s, sold {} of {}",
+				String.format("%.0f", atomicSold.get() / (atomicNanos / 1e9)), atomicSold.get(), stock);
+		log.info("Read-check-save: {} decrements/s, sold {} of {}",
+				String.format("%.0f", legacySold.get() / (legacyNanos / 1e9)), legacySold.get(), stock);
+	}
+
+	@Test
+	void shouldSellHotSkuFromStripedCountersAndFlushDeltas() throws Exception {
+		int stock = 2000;
+		int threads = 16;
+		int attemptsPerThread = 200;
+
+		inventoryService.addInventory(new InventoryRequest("flash_sku", stock));
+		AtomicInteger hotSold = new AtomicInteger();
+		long hotNanos = runConcurrently(threads, attemptsPerThread, () -> {
+			try {
+				inventoryService.reduceStock("flash_sku", 1);
+				hotSold.incrementAndGet();
+			} catch (ProductNotInStockException ignored) {
+				// expected once the stock is exhausted
+			}
+		});
+		hotSkuStockService.flush();
+
+		assertThat(hotSold.get(), is(stock));
+		assertThat(inventoryService.isInStock("flash_sku", 1), is(false));
+		RestAssured.given()
+				.queryParam("skuCode", "flash_missing")
+				.queryParam("quantity", 1)
+				.when()
+				.get("/api/inventory/stock")
+				.then()
+				.statusCode(200)
+				.body(is("false"));
+		assertThat(inventoryRepository.findBySkuCode("flash_sku").orElseThrow().getQuantity(), is(0));
+
+		inventoryService.addInventory(new InventoryRequest("flash_row", stock));
+		AtomicInteger rowSold = new AtomicInteger();
+		long rowNanos = runConcurrently(threads, attemptsPerThread, () -> {
+			try {
+				inventoryService.reduceStock("flash_row", 1);
+				rowSold.incrementAndGet();
+			} catch (ProductNotInStockException ignored) {
+				// expected once the stock is exhausted
+			}
+		});
+
+		assertThat(rowSold.get(), is(stock));
+		log.info("Striped counters: {} decrements/s", String.format("%.0f", hotSold.get() / (hotNanos / 1e9)));
+		log.info("Row lock: {} decrements/s", String.format("%.0f", rowSold.get() / (rowNanos / 1e9)));
+	}
+
+	@Test
+	void shouldRestoreHotSkuCounterWhenReductionRollsBack() {
+		inventoryService.addInventory(new InventoryRequest("flash_rollback", 10));
+
+		transactionTemplate.executeWithoutResult(status -> {
+			inventoryService.reduceStock("flash_rollback", 3, UUID.randomUUID().toString());
+			status.setRollbackOnly();
+		});
+
+		assertThat(hotSkuStockService.availableStock("flash_rollback"), is(10));
+		inventoryService.reduceStock("flash_rollback", 3, UUID.randomUUID().toString());
+		assertThat(hotSkuStockService.availableStock("flash_rollback"), is(7));
+	}
+
+	@Test
+	void shouldStreamStockChangesToSubscribers() throws Exception {
+		inventoryService.addInventory(new InventoryRequest("stream_sku", 10));
+		HttpResponse<Stream<String>> response = HttpClient.newHttpClient().send(
+				HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/inventory/stream?skuCode=stream_sku"))
+						.header("Accept", "text/event-stream")
+						.build(),
+				HttpResponse.BodyHandlers.ofLines());
+		assertThat(response.statusCode(), is(200));
+		Iterator<String> lines = response.body().iterator();
+		ExecutorService reader = Executors.newSingleThreadExecutor();
+		try {
+			assertThat(reader.submit(() -> nextData(lines)).get(10, TimeUnit.SECONDS), containsString("\"availableQuantity\":10"));
+
+			inventoryService.reduceStock("stream_sku", 3);
+
+			assertThat(reader.submit(() -> nextData(lines)).get(10, TimeUnit.SECONDS), containsString("\"availableQuantity\":7"));
+		} finally {
+			reader.shutdownNow();
+			response.body().close();
+		}
+	}
+
+	private static String nextData(Iterator<String> lines) {
+		while (lines.hasNext()) {
+			String line = lines.next();
+			if (line.startsWith("data:")) {
+				return line;
+			}
+		}
+		throw new IllegalStateException("Stream closed before the next event");
+	}
+
+	private long runConcurrently(int threads, int attemptsPerThread, Runnable task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int j = 0; j < attemptsPerThread; j++) {
+					task.run();
+				}
+				return null;
+			}));
+		}
+		long startedAt = System.nanoTime();
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		long elapsed = System.nanoTime() - startedAt;
+		executor.shutdown();
+		return elapsed;
+	}
+}
@@ -0,0 +1,168 @@
+package com.talha.microservices.inventory;
+
+import com.talha.microservices.inventory.dto.InventoryRequest;
+import com.talha.microservices.inventory.dto.InventoryResponse;
+import com.talha.microservices.inventory.dto.WarehouseStockResponse;
+import com.talha.microservices.inventory.model.Inventory;
+import com.talha.microservices.inventory.repository.InventoryJdbcRepository;
+import com.talha.microservices.inventory.repository.InventoryRepository;
+import com.talha.microservices.inventory.repository.WarehouseStockJdbcRepository;
+import com.talha.microservices.inventory.service.InventoryService;
+import com.talha.microservices.inventory.service.ReshardingService;
+import com.talha.microservices.inventory.sharding.ShardRouter;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"inventory.sharding.enabled=true",
+		"inventory.snapshot.enabled=false"
+})
+class ShardedInventoryServiceApplicationTests {
+
+	static MySQLContainer shard0 = new MySQLContainer("mysql:8.3.0");
+	static MySQLContainer shard1 = new MySQLContainer("mysql:8.3.0");
+	@LocalServerPort
+	private Integer port;
+	@Autowired
+	private InventoryService inventoryService;
+	@Autowired
+	private InventoryRepository inventoryRepository;
+	@Autowired
+	private InventoryJdbcRepository inventoryJdbcRepository;
+	@Autowired
+	private WarehouseStockJdbcRepository warehouseStockJdbcRepository;
+	@Autowired
+	private ReshardingService reshardingService;
+	@Autowired
+	private ShardRouter shardRouter;
+
+	static {
+		shard0.start();
+		shard1.start();
+	}
+
+	@DynamicPropertySource
+	static void shardProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", shard0::getJdbcUrl);
+		registry.add("spring.datasource.username", shard0::getUsername);
+		registry.add("spring.datasource.password", shard0::getPassword);
+		MySQLContainer[] shards = {shard0, shard1};
+		for (int i = 0; i < shards.length; i++) {
+			MySQLContainer shard = shards[i];
+			registry.add("inventory.sharding.shards[" + i + "].url", shard::getJdbcUrl);
+			registry.add("inventory.sharding.shards[" + i + "].username", shard::getUsername);
+			registry.add("inventory.sharding.shards[" + i + "].password", shard::getPassword);
+		}
+	}
+
+	@BeforeEach
+	void setup() {
+		RestAssured.baseURI = "http://localhost";
+		RestAssured.port = port;
+	}
+
+	@Test
+	void shouldStoreEachSkuOnItsShardWithIdsFromTheShardRange() {
+		for (int shard = 0; shard < 2; shard++) {
+			String skuCode = skuOnShard("routed", shard);
+			InventoryResponse response = inventoryService.addInventory(new InventoryRequest(skuCode, 10));
+
+			assertThat(shardRouter.shardOfId(response.id()), is(shard));
+			assertThat(response.id() >= ((long) shard << ShardRouter.ID_RANGE_BITS), is(true));
+			assertThat(findOnShard(shard, skuCode).isPresent(), is(true));
+			assertThat(findOnShard(1 - shard, skuCode).isPresent(), is(false));
+			RestAssured.given()
+					.queryParam("skuCode", skuCode)
+					.queryParam("quantity", 10)
+					.when()
+					.get("/api/inventory/stock")
+					.then()
+					.statusCode(200)
+					.body(is("true"));
+		}
+	}
+
+	@Test
+	void shouldMoveRowWhenUpdatedSkuHashesToAnotherShard() {
+		String skuCode = skuOnShard("move_from", 0);
+		String movedSkuCode = skuOnShard("move_to", 1);
+		InventoryResponse created = inventoryService.addInventory(new InventoryRequest(skuCode, 5));
+
+		InventoryResponse moved = inventoryService.updateInventory(created.id(), new InventoryRequest(movedSkuCode, 7));
+
+		assertThat(shardRouter.shardOfId(moved.id()), is(1));
+		assertThat(findOnShard(0, skuCode).isPresent(), is(false));
+		assertThat(findOnShard(1, movedSkuCode).orElseThrow().getQuantity(), is(7));
+	}
+
+	@Test
+	void shouldMoveMisplacedRowsWhenResharding() {
+		String skuCode = skuOnShard("misplaced", 1);
+		shardRouter.onShard(0, () -> {
+			inventoryJdbcRepository.upsertStock(Map.of(skuCode, 4));
+			return null;
+		});
+
+		ReshardingService.ReshardReport report = reshardingService.reshard();
+
+		assertThat(report.moved(), greaterThanOrEqualTo(1L));
+		assertThat(findOnShard(0, skuCode).isPresent(), is(false));
+		Inventory inventory = findOnShard(1, skuCode).orElseThrow();
+		assertThat(inventory.getQuantity(), is(4));
+		assertThat(shardRouter.shardOfId(inventory.getId()), is(1));
+		assertThat(inventoryService.isInStock(skuCode, 4), is(true));
+	}
+
+	@Test
+	void shouldNotDoubleCountRowsLeftOnTheSourceShardByAnInterruptedMove() {
+		String skuCode = skuOnShard("interrupted", 1);
+		for (int run = 0; run < 2; run++) {
+			// The second copy stands in for a source row whose delete never ran
+			shardRouter.onShard(0, () -> {
+				inventoryJdbcRepository.upsertStock(Map.of(skuCode, 4));
+				warehouseStockJdbcRepository.setQuantity(skuCode, "default", 4);
+				return null;
+			});
+			reshardingService.reshard();
+		}
+
+		assertThat(findOnShard(0, skuCode).isPresent(), is(false));
+		assertThat(findOnShard(1, skuCode).orElseThrow().getQuantity(), is(4));
+		assertThat(shardRouter.onShard(1, () -> warehouseStockJdbcRepository.findBySkuCode(skuCode))
+				.stream().mapToInt(WarehouseStockResponse::quantity).sum(), is(4));
+	}
+
+	@Test
+	void shouldRejectRoutingOutsideOfTransaction() {
+		assertThrows(IllegalStateException.class, () -> shardRouter.routeTo(1));
+	}
+
+	private Optional<Inventory> findOnShard(int shard, String skuCode) {
+		return shardRouter.onShard(shard, () -> inventoryRepository.findBySkuCode(skuCode));
+	}
+
+	private String skuOnShard(String prefix, int shard) {
+		for (int i = 0; ; i++) {
+			String skuCode = prefix + "_" + i;
+			if (shardRouter.shardOf(skuCode) == shard) {
+				return skuCode;
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.talha.microservices.inventory.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StockSnapshotFileTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void shouldRoundTripPerShardSequencesAndEntries() throws IOException {
+		Path snapshot = directory.resolve("inventory-stock.bin");
+		Map<String, Integer> entries = new LinkedHashMap<>();
+		entries.put("sku_a", 10);
+		entries.put("sku_ü", 0);
+		entries.put("sku_c", -3);
+		Instant createdAt = Instant.ofEpochMilli(1_700_000_000_000L);
+
+		StockSnapshotFile.write(snapshot, new long[]{42, 7}, createdAt, consumer -> entries.forEach(consumer::accept));
+		Map<String, Integer> read = new LinkedHashMap<>();
+		StockSnapshotFile.Header header = StockSnapshotFile.read(snapshot, read::put);
+
+		assertThat(header.outboxSequences().length, is(2));
+		assertThat(header.outboxSequences()[0], is(42L));
+		assertThat(header.outboxSequences()[1], is(7L));
+		assertThat(header.createdAt(), is(createdAt));
+		assertThat(header.entryCount(), is(3));
+		assertThat(read, is(entries));
+	}
+
+	@Test
+	void shouldRejectSnapshotsOfAnotherVersion() throws IOException {
+		Path snapshot = directory.resolve("inventory-stock-v1.bin");
+		ByteBuffer legacy = ByteBuffer.allocate(4 + 2 + 8 + 8 + 4)
+				.putInt(0x494E5653).putShort((short) 1).putLong(0).putLong(0).putInt(0);
+		Files.write(snapshot, legacy.array());
+
+		assertThrows(IOException.class, () -> StockSnapshotFile.read(snapshot, (skuCode, quantity) -> {
+		}));
+	}
+
+	@Test
+	void shouldRejectTruncatedSnapshots() throws IOException {
+		Path snapshot = directory.resolve("inventory-stock.bin");
+		StockSnapshotFile.write(snapshot, new long[]{1, 2}, Instant.now(), consumer -> consumer.accept("sku_a", 1));
+		byte[] bytes = Files.readAllBytes(snapshot);
+		Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 2));
+
+		assertThrows(IOException.class, () -> StockSnapshotFile.read(snapshot, (skuCode, quantity) -> {
+		}));
+	}
+}
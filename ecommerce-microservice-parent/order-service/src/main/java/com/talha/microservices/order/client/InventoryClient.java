@@ -1,15 +1,20 @@
 package com.talha.microservices.order.client;
 
+import com.talha.microservices.order.dto.StockLineRequest;
+import com.talha.microservices.order.dto.StockLineResponse;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.springframework.stereotype.Component;
 import groovy.util.logging.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.service.annotation.GetExchange;
 import org.springframework.web.service.annotation.PostExchange;
 
+import java.util.List;
+
 @Slf4j
 @Component
 public interface InventoryClient {
@@ -26,12 +31,21 @@ public interface InventoryClient {
         return false;
     }
 
-    @PostExchange("/api/inventory/reduce")
-    @CircuitBreaker(name = "inventory", fallbackMethod = "fallbackReduceStock")
+    /**
+     * Checks every line without reducing anything. Has no fallback, so callers see every failure.
+     */
+    @PostExchange("/api/inventory/stock/batch")
+    @CircuitBreaker(name = "inventory")
     @Retry(name = "inventory")
-    void reduceStock(@RequestParam String skuCode, @RequestParam Integer quantity);
+    List<StockLineResponse> checkStock(@RequestBody List<StockLineRequest> lines);
 
-    default void fallbackReduceStock(String skuCode, Integer quantity, Throwable throwable) {
-        log.info("Cannot reduce stock for skucode {}, failure reason: {}", skuCode, throwable.getMessage());
-    }
+    /**
+     * Checks and reduces every line in one all-or-nothing call. Insufficient stock is answered with
+     * 400 and the failed lines; it is neither retried nor counted by the circuit breaker, and there is no
+     * fallback, so callers see every failure.
+     */
+    @PostExchange("/api/inventory/reduce/batch")
+    @CircuitBreaker(name = "inventory")
+    @Retry(name = "inventory")
+    List<StockLineResponse> reduceStock(@RequestBody List<StockLineRequest> lines, @RequestParam String requestId);
 }
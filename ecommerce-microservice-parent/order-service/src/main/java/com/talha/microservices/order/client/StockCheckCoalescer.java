@@ -0,0 +1,218 @@
+package com.talha.microservices.order.client;
+
+import com.talha.microservices.order.dto.StockLineRequest;
+import com.talha.microservices.order.dto.StockLineResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Micro-batches {@link InventoryClient#isInStock} style checks. Callers asking about a SKU that is already
+ * queued or in flight share that lookup; distinct SKUs arriving within {@code inventory.coalescing.window} are
+ * sent as one {@link InventoryClient#checkStock} call of at most {@code inventory.coalescing.max-batch-size}
+ * SKUs. The lookup fetches the available quantity, so callers with different quantities can share it and each
+ * gets its own answer, or the failure of the call its SKU was part of. A caller waits at most
+ * {@code inventory.coalescing.timeout}; checks still queued or in flight at shutdown fail.
+ * <p>
+ * It answers {@code GET /api/order/stock}, the availability check product pages call before offering a SKU;
+ * placing an order does not go through it, since orders reserve their stock with one
+ * {@link InventoryClient#reduceStock} call that checks every line itself.
+ * <p>
+ * Exposes {@code inventory.client.coalesced} (checks answered by a shared lookup) and
+ * {@code inventory.client.batch.size} (SKUs per batch call).
+ */
+@Component
+@Slf4j
+public class StockCheckCoalescer {
+
+    private final InventoryClient inventoryClient;
+    private final Map<String, CompletableFuture<Integer>> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private List<String> pending = new ArrayList<>();
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService senders;
+    private final Counter coalescedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final long windowNanos;
+    private final Duration timeout;
+    private final int maxBatchSize;
+
+    public StockCheckCoalescer(InventoryClient inventoryClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                               @Value("${inventory.coalescing.window}") Duration window,
+                               @Value("${inventory.coalescing.max-batch-size}") int maxBatchSize,
+                               @Value("${inventory.coalescing.senders}") int senderCount,
+                               @Value("${inventory.coalescing.timeout}") Duration timeout) {
+        this.inventoryClient = inventoryClient;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("stock-check-flusher").daemon().factory());
+        this.senders = Executors.newFixedThreadPool(senderCount, virtualThreads
+                ? Thread.ofVirtual().name("stock-check-", 0).factory()
+                : Thread.ofPlatform().name("stock-check-", 0).factory());
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.timeout = timeout;
+        this.coalescedCounter = Counter.builder("inventory.client.coalesced")
+                .description("Stock checks answered by a lookup another caller already started")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("inventory.client.batch.size")
+                .description("SKUs per batched stock check sent to inventory-service")
+                .register(meterRegistry);
+    }
+
+    public boolean isInStock(String skuCode, int quantity) {
+        try {
+            return availableQuantity(skuCode).get(timeout.toNanos(), TimeUnit.NANOSECONDS) >= quantity;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Stock check for " + skuCode + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Stock check for " + skuCode + " timed out after " + timeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while checking stock for " + skuCode, e);
+        }
+    }
+
+    CompletableFuture<Integer> availableQuantity(String skuCode) {
+        CompletableFuture<Integer> lookup = new CompletableFuture<>();
+        CompletableFuture<Integer> shared = inFlight.putIfAbsent(skuCode, lookup);
+        if (shared != null) {
+            coalescedCounter.increment();
+            return shared;
+        }
+        enqueue(skuCode);
+        return lookup;
+    }
+
+    private void enqueue(String skuCode) {
+        List<String> fullBatch = null;
+        pendingLock.lock();
+        try {
+            pending.add(skuCode);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = pending;
+                pending = new ArrayList<>();
+            } else if (pending.size() == 1) {
+                // The first SKU of a window schedules its flush; later ones ride along
+                try {
+                    flusher.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+                } catch (Throwable e) {
+                    // Nothing would flush the window, so its only SKU fails right away
+                    pending = new ArrayList<>();
+                    fail(List.of(skuCode), e);
+                    rethrowIfError(e);
+                }
+            }
+        } finally {
+            pendingLock.unlock();
+        }
+        if (fullBatch != null) {
+            submit(fullBatch);
+        }
+    }
+
+    private void flush() {
+        List<String> batch;
+        pendingLock.lock();
+        try {
+            batch = pending;
+            pending = new ArrayList<>();
+        } finally {
+            pendingLock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            submit(batch);
+        }
+    }
+
+    private void submit(List<String> skuCodes) {
+        try {
+            senders.execute(() -> send(skuCodes));
+        } catch (Throwable e) {
+            fail(skuCodes, e);
+            rethrowIfError(e);
+        }
+    }
+
+    private void send(List<String> skuCodes) {
+        batchSizeSummary.record(skuCodes.size());
+        Map<String, Integer> available = new HashMap<>();
+        try {
+            List<StockLineResponse> responses = inventoryClient.checkStock(skuCodes.stream()
+                    .map(skuCode -> new StockLineRequest(skuCode, 1))
+                    .toList());
+            responses.forEach(response -> available.put(response.skuCode(),
+                    response.availableQuantity() == null ? 0 : response.availableQuantity()));
+        } catch (Throwable e) {
+            log.info("Cannot check stock for {} SKUs, failure reason: {}", skuCodes.size(), e.getMessage());
+            fail(skuCodes, e);
+            rethrowIfError(e);
+            return;
+        }
+        for (String skuCode : skuCodes) {
+            // Removed before completing, so a caller arriving from now on starts a fresh lookup
+            CompletableFuture<Integer> lookup = inFlight.remove(skuCode);
+            Integer quantity = available.get(skuCode);
+            if (lookup == null) {
+                // Already failed by shutdown
+                continue;
+            }
+            if (quantity == null) {
+                lookup.completeExceptionally(new IllegalStateException("Inventory returned no stock for " + skuCode));
+            } else {
+                lookup.complete(quantity);
+            }
+        }
+    }
+
+    private void fail(List<String> skuCodes, Throwable failure) {
+        for (String skuCode : skuCodes) {
+            CompletableFuture<Integer> lookup = inFlight.remove(skuCode);
+            if (lookup != null) {
+                lookup.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static void rethrowIfError(Throwable e) {
+        if (e instanceof Error error) {
+            throw error;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        pendingLock.lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            pendingLock.unlock();
+        }
+        // Failed before the senders are interrupted, so waiting callers see the shutdown rather than the interrupt
+        fail(List.copyOf(inFlight.keySet()), new IllegalStateException("Stock check coalescer is shut down"));
+        senders.shutdownNow();
+    }
+}
@@ -1,40 +1,128 @@
 package com.talha.microservices.order.config;
 
 import com.talha.microservices.order.client.InventoryClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.ClientHttpRequestFactories;
-import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.support.RestClientAdapter;
 import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
+import java.net.http.HttpClient;
 import java.time.Duration;
+import java.util.concurrent.Executors;
 
+/**
+ * Builds {@link InventoryClient} on the auto-configured {@link RestClient.Builder}, so every call is observed as
+ * {@code http.client.requests} tagged with its URI template. The transport is a pooled Apache HttpClient with
+ * keep-alive and idle eviction whose pool is exposed as {@code httpcomponents.httpclient.pool.*} (tag
+ * {@code httpclient=inventory}) and whose lease waits are timed as {@code inventory.client.pool.lease}.
+ * The {@code virtual-threads} profile keeps this client and raises its pool limits, since request concurrency is
+ * no longer capped by Tomcat's thread pool.
+ * With {@code inventory.http.http2=true} the JDK client is used instead; it multiplexes all calls over one
+ * HTTP/2 connection, so there is no pool to size or observe.
+ */
 @Configuration
 public class RestClientConfig {
 
+    private static final String CLIENT_NAME = "inventory";
+
     @Value("${inventory.url}")
     private String inventoryServiceUrl;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${inventory.http.max-connections}")
+    private int maxConnections;
+
+    @Value("${inventory.http.max-connections-per-route}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${inventory.http.connect-timeout}")
+    private Duration connectTimeout;
+
+    @Value("${inventory.http.read-timeout}")
+    private Duration readTimeout;
+
+    @Value("${inventory.http.lease-timeout}")
+    private Duration leaseTimeout;
+
+    @Value("${inventory.http.keep-alive}")
+    private Duration keepAlive;
+
+    @Value("${inventory.http.idle-eviction}")
+    private Duration idleEviction;
+
+    @Value("${inventory.http.validate-after-inactivity}")
+    private Duration validateAfterInactivity;
+
+    @Value("${inventory.http.http2}")
+    private boolean http2;
+
     @Bean
-    public InventoryClient inventoryClient() {
-        RestClient restClient = RestClient.builder()
+    public InventoryClient inventoryClient(RestClient.Builder restClientBuilder, ClientHttpRequestFactory inventoryRequestFactory) {
+        RestClient restClient = restClientBuilder
                 .baseUrl(inventoryServiceUrl)
-                .requestFactory(getClientRequestFactory())
+                .requestFactory(inventoryRequestFactory)
                 .build();
         var restClientAdapter = RestClientAdapter.create(restClient);
         var httpServiceProxyFactory = HttpServiceProxyFactory.builderFor(restClientAdapter).build();
         return httpServiceProxyFactory.createClient(InventoryClient.class);
     }
 
-    private ClientHttpRequestFactory getClientRequestFactory() {
-        ClientHttpRequestFactorySettings clientHttpRequestFactorySettings = ClientHttpRequestFactorySettings.DEFAULTS
-                .withConnectTimeout(Duration.ofSeconds(3))
-                .withReadTimeout(Duration.ofSeconds(3));
-        return ClientHttpRequestFactories.get(clientHttpRequestFactorySettings);
-    }
+    @Bean
+    public ClientHttpRequestFactory inventoryRequestFactory(MeterRegistry meterRegistry) {
+        if (http2) {
+            HttpClient.Builder httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(connectTimeout);
+            if (virtualThreads) {
+                // A blocking send of the JDK client parks the calling virtual thread instead of pinning its carrier
+                httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+            }
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient.build());
+            requestFactory.setReadTimeout(readTimeout);
+            return requestFactory;
+        }
+
+        Timer leaseTimer = Timer.builder("inventory.client.pool.lease")
+                .description("Time spent waiting to lease a pooled connection to inventory-service")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(leaseTimer);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivity.toMillis()))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, CLIENT_NAME).bindTo(meterRegistry);
 
+        TimeValue keepAliveDuration = TimeValue.ofMilliseconds(keepAlive.toMillis());
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(leaseTimeout.toMillis()))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> keepAliveDuration)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()))
+                .build();
+        // Closes the client and its pool when the context shuts down
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
 }
@@ -1,18 +1,40 @@
 package com.talha.microservices.order.controller;
 
+import com.talha.microservices.order.client.StockCheckCoalescer;
+import com.talha.microservices.order.dto.BulkOrderResponse;
+import com.talha.microservices.order.dto.ExportFormat;
+import com.talha.microservices.order.dto.OrderFilter;
 import com.talha.microservices.order.dto.OrderRequest;
 import com.talha.microservices.order.dto.OrderResponse;
+import com.talha.microservices.order.dto.OrderStatusResponse;
+import com.talha.microservices.order.dto.OrderSummaryResponse;
+import com.talha.microservices.order.dto.SalesStatsResponse;
+import com.talha.microservices.order.dto.StatsGranularity;
+import com.talha.microservices.order.exception.InvalidOrderException;
+import com.talha.microservices.order.model.OrderStatus;
+import com.talha.microservices.order.service.BulkOrderService;
+import com.talha.microservices.order.service.IdempotencyService;
+import com.talha.microservices.order.service.OrderExportService;
 import com.talha.microservices.order.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -20,31 +42,146 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    // Width of t_order_idempotency_keys.idempotency_key
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final String ORDER_NUMBER_DESCRIPTION = "26 karakterlik sipariş numarası; eski siparişler UUID ile de aranabilir, "
+            + "ancak yanıtlarda 26 karakterlik biçimde döner";
+
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final BulkOrderService bulkOrderService;
+    private final OrderExportService orderExportService;
+    private final StockCheckCoalescer stockCheckCoalescer;
 
     @Operation(summary = "Sipariş Verme Metodu")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Sipariş başarıyla oluşturuldu",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = OrderResponse.class))}),
+            @ApiResponse(responseCode = "202", description = "Sipariş kabul edildi, stok işlemleri arka planda yapılacak (Prefer: respond-async)",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = OrderResponse.class))}),
             @ApiResponse(responseCode = "400", description = "Geçersiz istek",
+                    content = @Content),
+            @ApiResponse(responseCode = "409", description = "Aynı Idempotency-Key ile gönderilen istek hâlâ işleniyor",
+                    content = @Content),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key farklı bir istek için kullanılmış",
                     content = @Content)})
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<OrderResponse> placeOrder(@RequestBody OrderRequest orderRequest) {
-            OrderResponse orderResponse = orderService.placeOrder(orderRequest);
-            return ResponseEntity.status(HttpStatus.CREATED).body(orderResponse);
+    public ResponseEntity<OrderResponse> placeOrder(@RequestBody OrderRequest orderRequest,
+                                                    @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                                    @RequestHeader(name = "Prefer", required = false) String prefer) {
+            boolean respondAsync = prefer != null && Arrays.stream(prefer.split(","))
+                    .anyMatch(preference -> preference.trim().equalsIgnoreCase("respond-async"));
+            if (idempotencyKey == null || idempotencyKey.isBlank()) {
+                return placeOrderOnce(orderRequest, respondAsync);
+            }
+            if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new InvalidOrderException("Idempotency-Key must not be longer than " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            }
+            return idempotencyService.execute(idempotencyKey, orderRequest, () -> placeOrderOnce(orderRequest, respondAsync));
+    }
+
+    private ResponseEntity<OrderResponse> placeOrderOnce(OrderRequest orderRequest, boolean respondAsync) {
+            OrderResponse orderResponse = orderService.placeOrder(orderRequest, respondAsync);
+            HttpStatus status = orderResponse.status() == OrderStatus.PENDING ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+            return ResponseEntity.status(status).body(orderResponse);
+    }
+
+    @Operation(summary = "Toplu Sipariş Yükleme Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Dosya işlendi, hatalı satırlar raporda listelendi",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BulkOrderResponse.class))})})
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    @ResponseStatus(HttpStatus.OK)
+    public BulkOrderResponse bulkImport(InputStream body) throws IOException {
+        return bulkOrderService.importOrders(body);
+    }
+
+    @Operation(summary = "Sipariş Durumunu Sorgulama Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sipariş durumu başarıyla getirildi",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = OrderStatusResponse.class))}),
+            @ApiResponse(responseCode = "404", description = "Sipariş bulunamadı",
+                    content = @Content)})
+    @GetMapping("/{orderNumber}/status")
+    @ResponseStatus(HttpStatus.OK)
+    public OrderStatusResponse getOrderStatus(@Parameter(description = ORDER_NUMBER_DESCRIPTION) @PathVariable String orderNumber) {
+        return orderService.getOrderStatus(orderNumber);
     }
 
-    @Operation(summary = "Tüm Siparişleri Listeleme Metodu")
+    @Operation(summary = "Siparişleri Filtreleyerek Sayfalı Listeleme Metodu")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Siparişler başarıyla getirildi",
                     content = {@Content(mediaType = "application/json",
-                            schema = @Schema(implementation = OrderResponse.class))})})
+                            schema = @Schema(implementation = OrderSummaryResponse.class))})})
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<OrderResponse> getAllOrders() {
-        return orderService.getAllOrders();
+    public List<OrderSummaryResponse> getOrders(@RequestParam(required = false) Long afterId,
+                                                @RequestParam(required = false) Integer limit,
+                                                @RequestParam(required = false) String skuCode,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdFrom,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdTo,
+                                                @Parameter(description = ORDER_NUMBER_DESCRIPTION) @RequestParam(required = false) String orderNumber) {
+        OrderFilter filter = new OrderFilter(skuCode, createdFrom, createdTo, orderNumber);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return orderService.getOrders(filter, afterId, pageSize);
+    }
+
+    @Operation(summary = "Tüm Siparişleri CSV veya NDJSON Olarak Akıtma Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Siparişler satır satır akıtıldı, istenirse gzip ile sıkıştırıldı",
+                    content = {@Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = OrderResponse.class)),
+                            @Content(mediaType = "text/csv")})})
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                                              @RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = outputStream -> orderExportService.exportOrders(outputStream, format, gzip);
+        String extension = format == ExportFormat.CSV ? "csv" : "ndjson";
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format == ExportFormat.CSV ? "text/csv" : "application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + extension + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @Operation(summary = "SKU ve Zaman Dilimine Göre Satış İstatistikleri Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Satış istatistikleri başarıyla getirildi",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SalesStatsResponse.class))})})
+    @GetMapping("/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public List<SalesStatsResponse> getSalesStats(@RequestParam(required = false) String skuCode,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                  @RequestParam(defaultValue = "HOUR") StatsGranularity granularity) {
+        return orderService.getSalesStats(skuCode, from, to, granularity);
+    }
+
+    @Operation(summary = "Stok Uygunluğu Sorgulama Metodu")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "SKU'nun istenen miktarda sipariş edilebilir olup olmadığı döner; "
+                    + "eşzamanlı sorgular inventory-service'e tek bir toplu çağrı olarak gider",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Boolean.class))}),
+            @ApiResponse(responseCode = "400", description = "Geçersiz istek",
+                    content = @Content)})
+    @GetMapping("/stock")
+    @ResponseStatus(HttpStatus.OK)
+    public boolean isInStock(@RequestParam String skuCode, @RequestParam(defaultValue = "1") int quantity) {
+        if (skuCode.isBlank() || quantity <= 0) {
+            throw new InvalidOrderException("Stock check needs a skuCode and a positive quantity");
+        }
+        return stockCheckCoalescer.isInStock(skuCode, quantity);
     }
 
     @Operation(summary = "ID'ye Göre Sipariş Listeleme Metodu")
@@ -0,0 +1,7 @@
+package com.talha.microservices.order.dto;
+
+import java.util.List;
+
+public record BulkOrderResponse(long linesRead, long ordersImported, long failedLines, List<BulkLineError> errors,
+                                long elapsedMillis, double ordersPerSecond) {
+}
@@ -0,0 +1,9 @@
+package com.talha.microservices.order.dto;
+
+import java.time.Instant;
+
+/**
+ * Optional criteria of an order listing; {@code null} fields do not filter. The time range is half-open.
+ */
+public record OrderFilter(String skuCode, Instant createdFrom, Instant createdTo, String orderNumber) {
+}
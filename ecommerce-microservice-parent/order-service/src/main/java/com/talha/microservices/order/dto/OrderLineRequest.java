@@ -0,0 +1,6 @@
+package com.talha.microservices.order.dto;
+
+import java.math.BigDecimal;
+
+public record OrderLineRequest(String skuCode, BigDecimal price, Integer quantity) {
+}
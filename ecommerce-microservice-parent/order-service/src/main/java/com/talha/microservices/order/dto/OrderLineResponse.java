@@ -0,0 +1,6 @@
+package com.talha.microservices.order.dto;
+
+import java.math.BigDecimal;
+
+public record OrderLineResponse(Long id, String skuCode, BigDecimal price, Integer quantity) {
+}
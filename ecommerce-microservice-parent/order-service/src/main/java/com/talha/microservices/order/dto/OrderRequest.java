@@ -1,6 +1,6 @@
 package com.talha.microservices.order.dto;
 
-import java.math.BigDecimal;
+import java.util.List;
 
-public record OrderRequest(String skuCode, BigDecimal price, Integer quantity) {
+public record OrderRequest(List<OrderLineRequest> lines) {
 }
@@ -1,6 +1,9 @@
 package com.talha.microservices.order.dto;
 
-import java.math.BigDecimal;
+import com.talha.microservices.order.model.OrderStatus;
 
-public record OrderResponse(Long id, String orderNumber, String skuCode, BigDecimal price, Integer quantity) {
+import java.time.Instant;
+import java.util.List;
+
+public record OrderResponse(Long id, String orderNumber, List<OrderLineResponse> lines, OrderStatus status, Instant createdAt) {
 }
@@ -0,0 +1,6 @@
+package com.talha.microservices.order.dto;
+
+import com.talha.microservices.order.model.OrderStatus;
+
+public record OrderStatusResponse(String orderNumber, OrderStatus status, String failureReason) {
+}
@@ -0,0 +1,10 @@
+package com.talha.microservices.order.dto;
+
+import com.talha.microservices.order.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record OrderSummaryResponse(Long id, String orderNumber, OrderStatus status, Instant createdAt, int lineCount,
+                                   BigDecimal totalPrice) {
+}
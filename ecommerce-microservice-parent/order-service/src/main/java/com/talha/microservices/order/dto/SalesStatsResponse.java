@@ -0,0 +1,7 @@
+package com.talha.microservices.order.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record SalesStatsResponse(String skuCode, Instant bucketStart, long units, BigDecimal revenue, long orderCount) {
+}
@@ -0,0 +1,6 @@
+package com.talha.microservices.order.dto;
+
+public enum StatsGranularity {
+    HOUR,
+    DAY
+}
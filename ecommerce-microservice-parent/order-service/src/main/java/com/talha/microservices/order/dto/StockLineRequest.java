@@ -0,0 +1,4 @@
+package com.talha.microservices.order.dto;
+
+public record StockLineRequest(String skuCode, Integer quantity) {
+}
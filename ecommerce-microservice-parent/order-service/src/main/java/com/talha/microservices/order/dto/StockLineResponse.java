@@ -0,0 +1,4 @@
+package com.talha.microservices.order.dto;
+
+public record StockLineResponse(String skuCode, Integer quantity, Integer availableQuantity, boolean inStock) {
+}
@@ -0,0 +1,7 @@
+package com.talha.microservices.order.exception;
+
+public class InvalidOrderException extends RuntimeException {
+    public InvalidOrderException(String message) {
+        super(message);
+    }
+}
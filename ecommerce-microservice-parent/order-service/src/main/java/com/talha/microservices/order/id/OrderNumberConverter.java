@@ -0,0 +1,21 @@
+package com.talha.microservices.order.id;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Keeps order numbers as text in the domain model and as {@code BINARY(16)} in the database.
+ */
+@Converter
+public class OrderNumberConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String orderNumber) {
+        return orderNumber == null ? null : OrderNumbers.parse(orderNumber);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return bytes == null ? null : OrderNumbers.format(bytes);
+    }
+}
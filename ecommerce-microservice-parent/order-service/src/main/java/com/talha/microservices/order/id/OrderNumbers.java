@@ -0,0 +1,85 @@
+package com.talha.microservices.order.id;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Converts 16-byte order numbers to and from their text form: 26 characters of Crockford base32, which sort
+ * in the same order as the bytes. Order numbers issued before {@link OrderNumberGenerator} were UUIDs; their
+ * 36-character form is still accepted when parsing.
+ * <p>
+ * Stored order numbers carry no marker of which form they were issued in, so a legacy UUID order is returned
+ * in the 26-character form too, e.g. {@code 123e4567-e89b-12d3-a456-426614174000} as
+ * {@code 0J7S2PFT4V2B9T8NJ2CRA1EG00}. Both forms find the same order.
+ */
+public final class OrderNumbers {
+
+    public static final int BYTES = 16;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int TEXT_LENGTH = 26;
+    private static final int UUID_TEXT_LENGTH = 36;
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+    }
+
+    private OrderNumbers() {
+    }
+
+    public static String format(long high, long low) {
+        char[] text = new char[TEXT_LENGTH];
+        // 128 bits in 26 groups of five from the least significant end; the first character holds three bits
+        for (int i = TEXT_LENGTH - 1; i >= 0; i--) {
+            text[i] = ALPHABET[(int) (low & 0x1F)];
+            low = (low >>> 5) | (high << 59);
+            high >>>= 5;
+        }
+        return new String(text);
+    }
+
+    public static String format(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return format(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code text} is neither a 26-character order number nor a UUID
+     */
+    public static byte[] parse(String text) {
+        if (text.length() == UUID_TEXT_LENGTH) {
+            UUID uuid = UUID.fromString(text);
+            return ByteBuffer.allocate(BYTES).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+        }
+        if (text.length() != TEXT_LENGTH) {
+            throw new IllegalArgumentException("Invalid order number: " + text);
+        }
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < TEXT_LENGTH; i++) {
+            char c = text.charAt(i);
+            int value = c < DECODE.length ? DECODE[c] : -1;
+            if (value < 0 || (i == 0 && value > 7)) {
+                throw new IllegalArgumentException("Invalid order number: " + text);
+            }
+            high = (high << 5) | (low >>> 59);
+            low = (low << 5) | value;
+        }
+        return ByteBuffer.allocate(BYTES).putLong(high).putLong(low).array();
+    }
+
+    public static boolean isValid(String text) {
+        try {
+            parse(text);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.talha.microservices.order.model;
 
+import com.talha.microservices.order.id.OrderNumberConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
-import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "t_orders")
@@ -17,10 +21,19 @@ import java.math.BigDecimal;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id")
+    @TableGenerator(name = "order_id", table = "t_id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "t_orders", allocationSize = 50)
     private Long id;
+    @Convert(converter = OrderNumberConverter.class)
     private String orderNumber;
-    private String skuCode;
-    private BigDecimal price;
-    private Integer quantity;
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+    private String failureReason;
+    private Instant createdAt;
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "order_id", nullable = false, updatable = false)
+    @BatchSize(size = 100)
+    @Builder.Default
+    private List<OrderLine> lines = new ArrayList<>();
 }
@@ -0,0 +1,8 @@
+package com.talha.microservices.order.model;
+
+public enum OrderCommandType {
+    /**
+     * Reduce the stock of every line of the order in one all-or-nothing inventory call.
+     */
+    RESERVE_STOCK
+}
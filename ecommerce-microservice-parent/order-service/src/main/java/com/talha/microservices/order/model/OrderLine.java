@@ -0,0 +1,27 @@
+package com.talha.microservices.order.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "t_order_lines")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_line_id")
+    @TableGenerator(name = "order_line_id", table = "t_id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "t_order_lines", allocationSize = 50)
+    private Long id;
+    private String skuCode;
+    private BigDecimal price;
+    private Integer quantity;
+}
@@ -0,0 +1,15 @@
+package com.talha.microservices.order.model;
+
+public enum OrderStatus {
+    /**
+     * Accepted and waiting for the intake pipeline to check and reduce stock.
+     */
+    PENDING,
+    PLACED,
+    OUT_OF_STOCK,
+    /**
+     * Inventory rejected the reduction, or it could not be sent; nothing was reduced. See the order's failure
+     * reason.
+     */
+    FAILED
+}
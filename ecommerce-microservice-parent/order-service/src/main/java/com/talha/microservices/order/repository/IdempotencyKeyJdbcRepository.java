@@ -0,0 +1,79 @@
+package com.talha.microservices.order.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyJdbcRepository {
+
+    /**
+     * {@code statusCode} and {@code responseBody} are {@code null} while the first request is still running.
+     */
+    public record IdempotencyKeyRow(byte[] requestHash, Integer statusCode, String responseBody) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes over {@code idempotencyKey} unless another request holds it. Rows created before
+     * {@code expiredBefore}, and claims whose lease ran out before {@code now}, no longer count.
+     *
+     * @return {@code false} if the key is held by a live claim or a stored response
+     */
+    public boolean claim(String idempotencyKey, byte[] requestHash, Instant now, Instant expiredBefore, Instant leaseUntil) {
+        jdbcTemplate.update("delete from t_order_idempotency_keys where idempotency_key = ? and (created_at < ? or (status_code is null and (lease_until is null or lease_until < ?)))",
+                idempotencyKey, Timestamp.from(expiredBefore), Timestamp.from(now));
+        return jdbcTemplate.update("insert ignore into t_order_idempotency_keys (idempotency_key, request_hash, created_at, lease_until) values (?, ?, ?, ?)",
+                idempotencyKey, requestHash, Timestamp.from(now), Timestamp.from(leaseUntil)) == 1;
+    }
+
+    /**
+     * Extends the leases of running claims, each identified by its key and the {@code created_at} it was
+     * claimed with, so a claim that was already taken over by another instance is left alone.
+     */
+    public void renewLeases(Map<String, Instant> claims, Instant leaseUntil) {
+        jdbcTemplate.batchUpdate("update t_order_idempotency_keys set lease_until = ? where idempotency_key = ? and created_at = ? and status_code is null",
+                List.copyOf(claims.entrySet()), claims.size(), (statement, claim) -> {
+                    statement.setTimestamp(1, Timestamp.from(leaseUntil));
+                    statement.setString(2, claim.getKey());
+                    statement.setTimestamp(3, Timestamp.from(claim.getValue()));
+                });
+    }
+
+    public Optional<IdempotencyKeyRow> find(String idempotencyKey) {
+        return jdbcTemplate.query("select request_hash, status_code, response_body from t_order_idempotency_keys where idempotency_key = ?",
+                (resultSet, rowNum) -> new IdempotencyKeyRow(
+                        resultSet.getBytes("request_hash"),
+                        resultSet.getObject("status_code", Integer.class),
+                        resultSet.getString("response_body")),
+                idempotencyKey).stream().findFirst();
+    }
+
+    /**
+     * Stores the response of the claim made at {@code claimedAt}, like {@link #renewLeases(Map, Instant)}.
+     *
+     * @return {@code false} if the claim was taken over by another request in the meantime
+     */
+    public boolean complete(String idempotencyKey, Instant claimedAt, int statusCode, String responseBody) {
+        return jdbcTemplate.update("update t_order_idempotency_keys set status_code = ?, response_body = ? where idempotency_key = ? and created_at = ? and status_code is null",
+                statusCode, responseBody, idempotencyKey, Timestamp.from(claimedAt)) == 1;
+    }
+
+    public void release(String idempotencyKey, Instant claimedAt) {
+        jdbcTemplate.update("delete from t_order_idempotency_keys where idempotency_key = ? and created_at = ? and status_code is null",
+                idempotencyKey, Timestamp.from(claimedAt));
+    }
+
+    public int deleteCreatedBefore(Instant createdBefore, int limit) {
+        return jdbcTemplate.update("delete from t_order_idempotency_keys where created_at < ? limit ?",
+                Timestamp.from(createdBefore), limit);
+    }
+}
@@ -0,0 +1,200 @@
+package com.talha.microservices.order.repository;
+
+import com.talha.microservices.order.dto.OrderFilter;
+import com.talha.microservices.order.dto.OrderLineResponse;
+import com.talha.microservices.order.dto.OrderResponse;
+import com.talha.microservices.order.dto.OrderSummaryResponse;
+import com.talha.microservices.order.id.OrderNumbers;
+import com.talha.microservices.order.model.Order;
+import com.talha.microservices.order.model.OrderCommandType;
+import com.talha.microservices.order.model.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderJdbcRepository {
+
+    public record OutboxCommand(long id, long orderId, String orderNumber, OrderCommandType commandType, String payload,
+                                int attempts, Instant createdAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Keyset page of order summaries with {@code id > afterId}, ascending. The page is cut from
+     * {@code t_orders} first and only its lines are aggregated, so the cost follows the page size.
+     */
+    public List<OrderSummaryResponse> findSummaries(OrderFilter filter, long afterId, int limit) {
+        StringBuilder where = new StringBuilder("where id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(afterId);
+        if (filter.orderNumber() != null) {
+            where.append(" and order_number = ?");
+            args.add(OrderNumbers.parse(filter.orderNumber()));
+        }
+        if (filter.createdFrom() != null) {
+            where.append(" and created_at >= ?");
+            args.add(Timestamp.from(filter.createdFrom()));
+        }
+        if (filter.createdTo() != null) {
+            where.append(" and created_at < ?");
+            args.add(Timestamp.from(filter.createdTo()));
+        }
+        if (filter.skuCode() != null) {
+            where.append(" and exists (select 1 from t_order_lines f where f.order_id = t_orders.id and f.sku_code = ?)");
+            args.add(filter.skuCode());
+        }
+        args.add(limit);
+        return jdbcTemplate.query(
+                "select o.id, o.order_number, o.status, o.created_at, count(l.id) as line_count, coalesce(sum(l.price * l.quantity), 0) as total_price " +
+                        "from (select id, order_number, status, created_at from t_orders " + where + " order by id limit ?) o " +
+                        "left join t_order_lines l on l.order_id = o.id " +
+                        "group by o.id, o.order_number, o.status, o.created_at order by o.id",
+                (resultSet, rowNum) -> {
+                    byte[] orderNumber = resultSet.getBytes("order_number");
+                    return new OrderSummaryResponse(
+                            resultSet.getLong("id"),
+                            orderNumber == null ? null : OrderNumbers.format(orderNumber),
+                            OrderStatus.valueOf(resultSet.getString("status")),
+                            resultSet.getTimestamp("created_at").toInstant(),
+                            resultSet.getInt("line_count"),
+                            resultSet.getBigDecimal("total_price"));
+                },
+                args.toArray());
+    }
+
+    /**
+     * Reads every order with its lines over a forward-only MySQL streaming result set, ordered by id, and hands
+     * each order to {@code consumer} as soon as its last line arrives. Only the current order is held in memory.
+     */
+    public void streamAll(Consumer<OrderResponse> consumer) {
+        List<OrderLineResponse> lines = new ArrayList<>();
+        // Header of the order being read; its lines are collected separately until the next order starts
+        OrderResponse[] current = new OrderResponse[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "select o.id, o.order_number, o.status, o.created_at, l.id as line_id, l.sku_code, l.price, l.quantity " +
+                            "from t_orders o join t_order_lines l on l.order_id = o.id order by o.id, l.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, resultSet -> {
+            long id = resultSet.getLong("id");
+            if (current[0] == null || current[0].id() != id) {
+                if (current[0] != null) {
+                    consumer.accept(withLines(current[0], lines));
+                }
+                lines.clear();
+                byte[] orderNumber = resultSet.getBytes("order_number");
+                current[0] = new OrderResponse(id, orderNumber == null ? null : OrderNumbers.format(orderNumber),
+                        List.of(), OrderStatus.valueOf(resultSet.getString("status")),
+                        resultSet.getTimestamp("created_at").toInstant());
+            }
+            lines.add(new OrderLineResponse(resultSet.getLong("line_id"), resultSet.getString("sku_code"),
+                    resultSet.getBigDecimal("price"), resultSet.getInt("quantity")));
+        });
+        if (current[0] != null) {
+            consumer.accept(withLines(current[0], lines));
+        }
+    }
+
+    private static OrderResponse withLines(OrderResponse order, List<OrderLineResponse> lines) {
+        return new OrderResponse(order.id(), order.orderNumber(), List.copyOf(lines), order.status(), order.createdAt());
+    }
+
+    public void insertOutboxCommand(Order order, OrderCommandType commandType, String payload, Instant createdAt) {
+        insertOutboxCommands(List.of(order), commandType, List.of(payload), createdAt);
+    }
+
+    /**
+     * Inserts a command that only becomes due at {@code dueAt}, for callers that deliver it themselves first.
+     *
+     * @return the id of the command
+     */
+    public long insertOutboxCommand(Order order, OrderCommandType commandType, String payload, Instant createdAt, Instant dueAt) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "insert into t_order_outbox (order_id, order_number, command_type, payload, next_attempt_at, created_at) values (?, ?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            statement.setLong(1, order.getId());
+            statement.setString(2, order.getOrderNumber());
+            statement.setString(3, commandType.name());
+            statement.setString(4, payload);
+            statement.setTimestamp(5, Timestamp.from(dueAt));
+            statement.setTimestamp(6, Timestamp.from(createdAt));
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    public void insertOutboxCommands(List<Order> orders, OrderCommandType commandType, List<String> payloads, Instant createdAt) {
+        List<Object[]> args = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            args.add(new Object[]{order.getId(), order.getOrderNumber(), commandType.name(), payloads.get(i),
+                    Timestamp.from(createdAt), Timestamp.from(createdAt)});
+        }
+        jdbcTemplate.batchUpdate("insert into t_order_outbox (order_id, order_number, command_type, payload, next_attempt_at, created_at) values (?, ?, ?, ?, ?, ?)",
+                args);
+    }
+
+    /**
+     * Locks up to {@code limit} due commands, skipping rows other relays hold, and leases them until
+     * {@code leaseUntil} so they are not handed out again while being delivered.
+     */
+    @Transactional
+    public List<OutboxCommand> claimDueCommands(Instant now, Instant leaseUntil, int limit) {
+        List<OutboxCommand> commands = jdbcTemplate.query(
+                "select id, order_id, order_number, command_type, payload, attempts, created_at from t_order_outbox " +
+                        "where processed_at is null and next_attempt_at <= ? order by next_attempt_at, id limit ? for update skip locked",
+                (resultSet, rowNum) -> new OutboxCommand(
+                        resultSet.getLong("id"),
+                        resultSet.getLong("order_id"),
+                        resultSet.getString("order_number"),
+                        OrderCommandType.valueOf(resultSet.getString("command_type")),
+                        resultSet.getString("payload"),
+                        resultSet.getInt("attempts"),
+                        resultSet.getTimestamp("created_at").toInstant()),
+                Timestamp.from(now), limit);
+        if (!commands.isEmpty()) {
+            jdbcTemplate.batchUpdate("update t_order_outbox set next_attempt_at = ? where id = ?",
+                    commands.stream().map(command -> new Object[]{Timestamp.from(leaseUntil), command.id()}).toList());
+        }
+        return commands;
+    }
+
+    public void markCommandProcessed(long id, String lastError, Instant processedAt) {
+        jdbcTemplate.update("update t_order_outbox set processed_at = ?, attempts = attempts + 1, last_error = ? where id = ?",
+                Timestamp.from(processedAt), lastError, id);
+    }
+
+    public void rescheduleCommand(long id, String lastError, Instant nextAttemptAt) {
+        jdbcTemplate.update("update t_order_outbox set attempts = attempts + 1, last_error = ?, next_attempt_at = ? where id = ?",
+                lastError, Timestamp.from(nextAttemptAt), id);
+    }
+
+    public long countPendingCommands() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from t_order_outbox where processed_at is null", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public int deleteProcessedCommands(Instant processedBefore, int limit) {
+        return jdbcTemplate.update("delete from t_order_outbox where processed_at < ? limit ?",
+                Timestamp.from(processedBefore), limit);
+    }
+}
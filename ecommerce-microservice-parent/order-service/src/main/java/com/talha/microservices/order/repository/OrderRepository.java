@@ -1,7 +1,29 @@
 package com.talha.microservices.order.repository;
 
 import com.talha.microservices.order.model.Order;
+import com.talha.microservices.order.model.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    Optional<Order> findByOrderNumber(String orderNumber);
+
+    @EntityGraph(attributePaths = "lines")
+    Optional<Order> findWithLinesById(Long id);
+
+    List<Order> findByStatusOrderByIdAsc(OrderStatus status, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update Order o set o.status = :status, o.failureReason = :failureReason where o.id = :id and o.status = com.talha.microservices.order.model.OrderStatus.PENDING")
+    int completePending(@Param("id") Long id, @Param("status") OrderStatus status, @Param("failureReason") String failureReason);
 }
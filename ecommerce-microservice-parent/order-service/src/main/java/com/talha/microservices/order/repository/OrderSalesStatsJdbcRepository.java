@@ -0,0 +1,66 @@
+package com.talha.microservices.order.repository;
+
+import com.talha.microservices.order.dto.SalesStatsResponse;
+import com.talha.microservices.order.dto.StatsGranularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderSalesStatsJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds ({@code sign = 1}) or subtracts ({@code sign = -1}) the lines of one order to the hourly bucket of its
+     * {@code created_at}, aggregated per SKU in the database.
+     */
+    public void apply(long orderId, int sign) {
+        jdbcTemplate.update("insert into t_order_sales_stats (sku_code, bucket_start, units, revenue, order_count) " +
+                        "select s.sku_code, s.bucket_start, s.units, s.revenue, s.order_count from (" +
+                        "select l.sku_code, date_format(o.created_at, '%Y-%m-%d %H:00:00') as bucket_start, " +
+                        "sum(l.quantity) * ? as units, sum(l.price * l.quantity) * ? as revenue, ? as order_count " +
+                        "from t_orders o join t_order_lines l on l.order_id = o.id where o.id = ? " +
+                        "group by l.sku_code, bucket_start) s " +
+                        "on duplicate key update units = t_order_sales_stats.units + s.units, " +
+                        "revenue = t_order_sales_stats.revenue + s.revenue, order_count = t_order_sales_stats.order_count + s.order_count",
+                sign, sign, sign, orderId);
+    }
+
+    /**
+     * Buckets starting in {@code [from, to)}, ordered by bucket and SKU. {@code DAY} sums the hourly rows.
+     */
+    public List<SalesStatsResponse> find(String skuCode, Instant from, Instant to, StatsGranularity granularity) {
+        String bucket = granularity == StatsGranularity.DAY ? "timestamp(date(bucket_start))" : "bucket_start";
+        StringBuilder sql = new StringBuilder("select sku_code, " + bucket + " as bucket, sum(units) as units, " +
+                "sum(revenue) as revenue, sum(order_count) as order_count from t_order_sales_stats where 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (skuCode != null) {
+            sql.append(" and sku_code = ?");
+            args.add(skuCode);
+        }
+        if (from != null) {
+            sql.append(" and bucket_start >= ?");
+            args.add(Timestamp.from(from));
+        }
+        if (to != null) {
+            sql.append(" and bucket_start < ?");
+            args.add(Timestamp.from(to));
+        }
+        sql.append(" group by sku_code, bucket order by bucket, sku_code");
+        return jdbcTemplate.query(sql.toString(),
+                (resultSet, rowNum) -> new SalesStatsResponse(
+                        resultSet.getString("sku_code"),
+                        resultSet.getTimestamp("bucket").toInstant(),
+                        resultSet.getLong("units"),
+                        resultSet.getBigDecimal("revenue"),
+                        resultSet.getLong("order_count")),
+                args.toArray());
+    }
+}
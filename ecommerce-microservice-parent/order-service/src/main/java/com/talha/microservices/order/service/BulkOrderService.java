@@ -0,0 +1,133 @@
+package com.talha.microservices.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talha.microservices.order.dto.BulkLineError;
+import com.talha.microservices.order.dto.BulkOrderResponse;
+import com.talha.microservices.order.dto.OrderRequest;
+import com.talha.microservices.order.exception.InvalidOrderException;
+import com.talha.microservices.order.model.Order;
+import com.talha.microservices.order.model.OrderStatus;
+import com.talha.microservices.order.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams NDJSON orders (one {@link OrderRequest} per line) from the request body and stores them in chunks of
+ * {@code order.bulk.chunk-size}, one transaction per chunk. Imported orders enter the same saga as
+ * {@code POST /api/order}: they are stored {@link OrderStatus#PENDING PENDING} together with their
+ * {@code RESERVE_STOCK} commands. Ids come from pooled blocks, so Hibernate sends the order and line rows of a
+ * chunk as JDBC batches of {@code hibernate.jdbc.batch_size}.
+ */
+@Service
+@Slf4j
+public class BulkOrderService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final class ImportReport {
+        private long linesRead;
+        private long ordersImported;
+        private long failedLines;
+        private final List<BulkLineError> errors = new ArrayList<>();
+
+        private void fail(BulkLineError error) {
+            failedLines++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final OrderOutbox orderOutbox;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+
+    public BulkOrderService(OrderService orderService,
+                            OrderRepository orderRepository,
+                            OrderOutbox orderOutbox,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${order.bulk.chunk-size}") int chunkSize) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.orderOutbox = orderOutbox;
+        this.objectMapper = objectMapper;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkOrderResponse importOrders(InputStream inputStream) throws IOException {
+        long startedAt = System.nanoTime();
+        ImportReport report = new ImportReport();
+
+        List<Order> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLineNumbers = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.linesRead++;
+                try {
+                    Order order = orderService.newOrder(objectMapper.readValue(line, OrderRequest.class));
+                    order.setStatus(OrderStatus.PENDING);
+                    chunk.add(order);
+                    chunkLineNumbers.add(lineNumber);
+                } catch (InvalidOrderException | JsonProcessingException e) {
+                    report.fail(new BulkLineError(lineNumber, e.getMessage()));
+                }
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, chunkLineNumbers, report);
+                    chunk.clear();
+                    chunkLineNumbers.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, chunkLineNumbers, report);
+        }
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        double ordersPerSecond = elapsedNanos == 0 ? 0 : report.ordersImported / (elapsedNanos / 1_000_000_000d);
+        log.info("Bulk import stored {} of {} orders in {} ms ({} orders/s)", report.ordersImported, report.linesRead,
+                elapsedNanos / 1_000_000, Math.round(ordersPerSecond));
+        return new BulkOrderResponse(report.linesRead, report.ordersImported, report.failedLines, report.errors,
+                elapsedNanos / 1_000_000, ordersPerSecond);
+    }
+
+    private void importChunk(List<Order> chunk, List<Long> lineNumbers, ImportReport report) {
+        try {
+            chunkTransaction.executeWithoutResult(status -> {
+                orderRepository.saveAll(chunk);
+                // The outbox rows reference the orders, so they have to reach the database first
+                orderRepository.flush();
+                orderOutbox.reserveStock(chunk);
+            });
+        } catch (DataAccessException e) {
+            log.error("Bulk chunk of {} orders rejected: {}", chunk.size(), e.getMostSpecificCause().getMessage());
+            lineNumbers.forEach(lineNumber -> report.fail(new BulkLineError(lineNumber,
+                    "Chunk rejected: " + e.getMostSpecificCause().getMessage())));
+            return;
+        }
+        report.ordersImported += chunk.size();
+    }
+}
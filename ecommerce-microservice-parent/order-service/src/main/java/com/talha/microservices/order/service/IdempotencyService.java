@@ -0,0 +1,240 @@
+package com.talha.microservices.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.talha.microservices.order.dto.OrderRequest;
+import com.talha.microservices.order.dto.OrderResponse;
+import com.talha.microservices.order.exception.IdempotencyConflictException;
+import com.talha.microservices.order.exception.IdempotencyKeyReuseException;
+import com.talha.microservices.order.repository.IdempotencyKeyJdbcRepository;
+import com.talha.microservices.order.repository.IdempotencyKeyJdbcRepository.IdempotencyKeyRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request once per {@code Idempotency-Key} and replays its first response to every duplicate within
+ * {@code order.idempotency.ttl}. Responses live in a bounded cache backed by {@code t_order_idempotency_keys},
+ * so duplicates are answered after a restart and by other instances.
+ * <p>
+ * A duplicate that arrives while the first request is still running waits for it: on the same instance it
+ * joins the in-flight future, on another instance it polls the table, in both cases for at most
+ * {@code order.idempotency.wait-timeout}. Failed requests are not stored, so they can be retried with the
+ * same key. Reusing a key for a different request body is rejected.
+ * <p>
+ * A claim is held for {@code order.idempotency.lease}, and the owner renews the leases of its running requests
+ * every {@code order.idempotency.lease-renewal-interval}. Another instance takes a key over only once its lease
+ * has run out, that is after the owner crashed, never while the first request is still running.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private record StoredResponse(byte[] requestHash, int statusCode, OrderResponse body) {
+    }
+
+    private final IdempotencyKeyJdbcRepository idempotencyKeyJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, StoredResponse> responses;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Instant> ownedClaims = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration lease;
+    private final int purgeBatchSize;
+
+    public IdempotencyService(IdempotencyKeyJdbcRepository idempotencyKeyJdbcRepository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${order.idempotency.ttl}") Duration ttl,
+                              @Value("${order.idempotency.cache-size}") long cacheSize,
+                              @Value("${order.idempotency.wait-timeout}") Duration waitTimeout,
+                              @Value("${order.idempotency.lease}") Duration lease,
+                              @Value("${order.idempotency.purge-batch-size}") int purgeBatchSize) {
+        this.idempotencyKeyJdbcRepository = idempotencyKeyJdbcRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.lease = lease;
+        this.purgeBatchSize = purgeBatchSize;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "order.idempotency");
+    }
+
+    public ResponseEntity<OrderResponse> execute(String idempotencyKey, OrderRequest orderRequest,
+                                                 Supplier<ResponseEntity<OrderResponse>> action) {
+        byte[] requestHash = hash(orderRequest);
+        StoredResponse cached = responses.getIfPresent(idempotencyKey);
+        if (cached != null) {
+            return replay(idempotencyKey, cached, requestHash);
+        }
+
+        CompletableFuture<StoredResponse> running = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(idempotencyKey, running);
+        if (existing != null) {
+            return replay(idempotencyKey, await(idempotencyKey, existing), requestHash);
+        }
+        try {
+            // created_at identifies the claim when renewing its lease, so keep it at the column's precision
+            Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            if (!idempotencyKeyJdbcRepository.claim(idempotencyKey, requestHash, now, now.minus(ttl), now.plus(lease))) {
+                StoredResponse stored = pollStored(idempotencyKey);
+                running.complete(stored);
+                return replay(idempotencyKey, stored, requestHash);
+            }
+            ownedClaims.put(idempotencyKey, now);
+            StoredResponse stored = runAndStore(idempotencyKey, now, requestHash, action);
+            running.complete(stored);
+            return ResponseEntity.status(stored.statusCode()).body(stored.body());
+        } catch (RuntimeException e) {
+            running.completeExceptionally(e);
+            throw e;
+        } finally {
+            ownedClaims.remove(idempotencyKey);
+            inFlight.remove(idempotencyKey, running);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.lease-renewal-interval}")
+    public void renewLeases() {
+        if (ownedClaims.isEmpty()) {
+            return;
+        }
+        try {
+            idempotencyKeyJdbcRepository.renewLeases(Map.copyOf(ownedClaims), Instant.now().plus(lease));
+        } catch (RuntimeException e) {
+            log.error("Failed to renew idempotency key leases: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-interval}")
+    public void purge() {
+        try {
+            Instant createdBefore = Instant.now().minus(ttl);
+            int purged;
+            do {
+                purged = idempotencyKeyJdbcRepository.deleteCreatedBefore(createdBefore, purgeBatchSize);
+            } while (purged == purgeBatchSize);
+        } catch (RuntimeException e) {
+            log.error("Failed to purge idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    private StoredResponse runAndStore(String idempotencyKey, Instant claimedAt, byte[] requestHash,
+                                       Supplier<ResponseEntity<OrderResponse>> action) {
+        ResponseEntity<OrderResponse> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyKeyJdbcRepository.release(idempotencyKey, claimedAt);
+            throw e;
+        }
+        StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(), response.getBody());
+        if (idempotencyKeyJdbcRepository.complete(idempotencyKey, claimedAt, stored.statusCode(), toJson(stored.body()))) {
+            responses.put(idempotencyKey, stored);
+        } else {
+            // The lease ran out and another request owns the key now; its response is the one duplicates get
+            log.warn("Claim on Idempotency-Key {} was taken over before its response was stored", idempotencyKey);
+        }
+        return stored;
+    }
+
+    private StoredResponse pollStored(String idempotencyKey) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            Optional<IdempotencyKeyRow> row = idempotencyKeyJdbcRepository.find(idempotencyKey);
+            if (row.isPresent() && row.get().statusCode() != null) {
+                StoredResponse stored = new StoredResponse(row.get().requestHash(), row.get().statusCode(), fromJson(row.get().responseBody()));
+                responses.put(idempotencyKey, stored);
+                return stored;
+            }
+            if (row.isEmpty() || System.nanoTime() > deadline) {
+                // Released after a failure, or still running past the wait timeout
+                throw new IdempotencyConflictException("Request with Idempotency-Key " + idempotencyKey + " is still in progress or has failed, retry later");
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyConflictException("Interrupted while waiting for Idempotency-Key " + idempotencyKey);
+            }
+        }
+    }
+
+    private StoredResponse await(String idempotencyKey, CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("Request with Idempotency-Key " + idempotencyKey + " is still in progress, retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for Idempotency-Key " + idempotencyKey);
+        }
+    }
+
+    private ResponseEntity<OrderResponse> replay(String idempotencyKey, StoredResponse stored, byte[] requestHash) {
+        if (!Arrays.equals(stored.requestHash(), requestHash)) {
+            throw new IdempotencyKeyReuseException("Idempotency-Key " + idempotencyKey + " was already used for a different request");
+        }
+        log.debug("Replaying response for Idempotency-Key {}", idempotencyKey);
+        return ResponseEntity.status(stored.statusCode())
+                .header("Idempotent-Replayed", "true")
+                .body(stored.body());
+    }
+
+    private byte[] hash(OrderRequest orderRequest) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(orderRequest));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot hash order request", e);
+        }
+    }
+
+    private String toJson(OrderResponse orderResponse) {
+        try {
+            return objectMapper.writeValueAsString(orderResponse);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize order response", e);
+        }
+    }
+
+    private OrderResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored order response", e);
+        }
+    }
+}
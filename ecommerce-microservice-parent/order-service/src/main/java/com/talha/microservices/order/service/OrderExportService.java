@@ -0,0 +1,84 @@
+package com.talha.microservices.order.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talha.microservices.order.dto.ExportFormat;
+import com.talha.microservices.order.dto.OrderLineResponse;
+import com.talha.microservices.order.dto.OrderResponse;
+import com.talha.microservices.order.repository.OrderJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes all orders to the response as they are read from {@link OrderJdbcRepository#streamAll}, so heap use
+ * does not grow with the table. NDJSON has one order with its lines per line; CSV has one row per order line.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final String CSV_HEADER = "orderId,orderNumber,status,createdAt,lineId,skuCode,price,quantity\n";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final ObjectMapper objectMapper;
+
+    public void exportOrders(OutputStream outputStream, ExportFormat format, boolean gzip) throws IOException {
+        long startedAt = System.nanoTime();
+        long[] exported = new long[1];
+        OutputStream target = new BufferedOutputStream(gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream, BUFFER_SIZE);
+        if (format == ExportFormat.CSV) {
+            target.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+        orderJdbcRepository.streamAll(order -> {
+            try {
+                if (format == ExportFormat.CSV) {
+                    writeCsv(target, order);
+                } else {
+                    target.write(objectMapper.writeValueAsBytes(order));
+                    target.write('\n');
+                }
+                exported[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        // Closing finishes the gzip trailer; the servlet container still owns the underlying stream
+        if (gzip) {
+            target.close();
+        } else {
+            target.flush();
+        }
+        log.info("Exported {} orders as {} in {} ms", exported[0], format, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private void writeCsv(OutputStream target, OrderResponse order) throws IOException {
+        StringBuilder rows = new StringBuilder();
+        for (OrderLineResponse line : order.lines()) {
+            rows.append(order.id()).append(',')
+                    .append(order.orderNumber()).append(',')
+                    .append(order.status()).append(',')
+                    .append(order.createdAt()).append(',')
+                    .append(line.id()).append(',')
+                    .append(csvField(line.skuCode())).append(',')
+                    .append(line.price().toPlainString()).append(',')
+                    .append(line.quantity()).append('\n');
+        }
+        target.write(rows.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,72 @@
+package com.talha.microservices.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talha.microservices.order.dto.StockLineRequest;
+import com.talha.microservices.order.model.Order;
+import com.talha.microservices.order.model.OrderCommandType;
+import com.talha.microservices.order.repository.OrderJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records commands for other services in {@code t_order_outbox} as part of the caller's transaction, so a
+ * command exists if and only if the order it belongs to was committed. {@link OrderOutboxRelay} delivers them.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderOutbox {
+
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserveStock(Order order) {
+        orderJdbcRepository.insertOutboxCommand(order, OrderCommandType.RESERVE_STOCK, stockLinesPayload(order), Instant.now());
+    }
+
+    /**
+     * Records a {@code RESERVE_STOCK} command that the caller delivers itself; the relay only picks it up
+     * after {@code claimedUntil}, e.g. when the caller died before completing the order.
+     *
+     * @return the id of the command
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long reserveStock(Order order, Instant claimedUntil) {
+        Instant now = Instant.now();
+        return orderJdbcRepository.insertOutboxCommand(order, OrderCommandType.RESERVE_STOCK, stockLinesPayload(order), now, claimedUntil);
+    }
+
+    /**
+     * Records the {@code RESERVE_STOCK} commands of several orders with one JDBC batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserveStock(List<Order> orders) {
+        orderJdbcRepository.insertOutboxCommands(orders, OrderCommandType.RESERVE_STOCK,
+                orders.stream().map(this::stockLinesPayload).toList(), Instant.now());
+    }
+
+    private String stockLinesPayload(Order order) {
+        try {
+            return objectMapper.writeValueAsString(toStockLines(order));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize stock lines of order " + order.getOrderNumber(), e);
+        }
+    }
+
+    static List<StockLineRequest> toStockLines(Order order) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        order.getLines().forEach(line -> quantities.merge(line.getSkuCode(), line.getQuantity(), Integer::sum));
+        return quantities.entrySet()
+                .stream()
+                .map(line -> new StockLineRequest(line.getKey(), line.getValue()))
+                .toList();
+    }
+}
@@ -0,0 +1,266 @@
+package com.talha.microservices.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talha.microservices.order.dto.OrderStatusResponse;
+import com.talha.microservices.order.dto.StockLineRequest;
+import com.talha.microservices.order.exception.ProductNotInStockException;
+import com.talha.microservices.order.model.Order;
+import com.talha.microservices.order.model.OrderCommandType;
+import com.talha.microservices.order.model.OrderStatus;
+import com.talha.microservices.order.repository.OrderJdbcRepository;
+import com.talha.microservices.order.repository.OrderJdbcRepository.OutboxCommand;
+import com.talha.microservices.order.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Delivers the commands of {@code t_order_outbox} to inventory-service and completes the saga of their order.
+ * Every {@code order.outbox.relay-interval} due commands are claimed in batches of {@code order.outbox.batch-size}
+ * and delivered concurrently on {@code order.outbox.workers} threads (virtual threads under the
+ * {@code virtual-threads} profile).
+ * <ul>
+ *     <li>Delivered: the order becomes {@link OrderStatus#PLACED PLACED}.</li>
+ *     <li>Rejected for missing stock: compensated as {@link OrderStatus#OUT_OF_STOCK OUT_OF_STOCK}; nothing was reduced.</li>
+ *     <li>Rejected with another client error, or a payload that cannot be read: compensated as
+ *     {@link OrderStatus#FAILED FAILED}; nothing was reduced.</li>
+ *     <li>Any other failure, e.g. a timeout: the reduction may or may not have been applied, so the order stays
+ *     {@link OrderStatus#PENDING PENDING} and the command is retried with exponential backoff until inventory
+ *     gives a definite answer. After {@code order.outbox.max-attempts} it is retried every
+ *     {@code order.outbox.max-backoff} and counted in {@code order.intake.unresolved}.</li>
+ * </ul>
+ * Commands are claimed with {@code skip locked} and a lease, so several instances can relay side by side and a
+ * crashed relay's commands are picked up again once the lease runs out. Redelivery is safe because the
+ * reduction is idempotent on the order number.
+ * <p>
+ * Exposes {@code order.intake.queue.depth} (undelivered commands), {@code order.intake.processing} (order
+ * accepted to final status), {@code order.intake.retries} and {@code order.intake.unresolved} (retries past
+ * {@code order.outbox.max-attempts}, which need an operator to look at inventory-service).
+ */
+@Component
+@Slf4j
+public class OrderOutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+    private static final TypeReference<List<StockLineRequest>> STOCK_LINES = new TypeReference<>() {
+    };
+
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final OrderRepository orderRepository;
+    private final OrderProcessor orderProcessor;
+    private final OrderSalesStats orderSalesStats;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+    private final AtomicLong pendingCommands = new AtomicLong();
+    private final Timer processingTimer;
+    private final Counter retryCounter;
+    private final Counter unresolvedCounter;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration retention;
+
+    public OrderOutboxRelay(OrderJdbcRepository orderJdbcRepository,
+                            OrderRepository orderRepository,
+                            OrderProcessor orderProcessor,
+                            OrderSalesStats orderSalesStats,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${order.outbox.workers}") int workerCount,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                            @Value("${order.outbox.batch-size}") int batchSize,
+                            @Value("${order.outbox.max-attempts}") int maxAttempts,
+                            @Value("${order.outbox.backoff}") Duration backoff,
+                            @Value("${order.outbox.max-backoff}") Duration maxBackoff,
+                            @Value("${order.outbox.lease}") Duration lease,
+                            @Value("${order.outbox.retention}") Duration retention) {
+        this.orderJdbcRepository = orderJdbcRepository;
+        this.orderRepository = orderRepository;
+        this.orderProcessor = orderProcessor;
+        this.orderSalesStats = orderSalesStats;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = Executors.newFixedThreadPool(workerCount, virtualThreads
+                ? Thread.ofVirtual().name("order-relay-", 0).factory()
+                : Thread.ofPlatform().name("order-relay-", 0).factory());
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.retention = retention;
+        Gauge.builder("order.intake.queue.depth", pendingCommands, AtomicLong::get)
+                .description("Accepted orders whose stock reservation has not been delivered yet")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder("order.intake.processing")
+                .description("Time from accepting an order to its final status")
+                .register(meterRegistry);
+        this.retryCounter = Counter.builder("order.intake.retries")
+                .description("Outbox deliveries that failed and were rescheduled")
+                .register(meterRegistry);
+        this.unresolvedCounter = Counter.builder("order.intake.unresolved")
+                .description("Outbox deliveries still without a definite answer after order.outbox.max-attempts")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay-interval}")
+    public void relay() {
+        try {
+            int delivered;
+            do {
+                delivered = deliverBatch();
+            } while (delivered == batchSize);
+            pendingCommands.set(orderJdbcRepository.countPendingCommands());
+        } catch (RuntimeException e) {
+            log.error("Failed to relay order outbox: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.purge-interval}")
+    public void purge() {
+        try {
+            Instant processedBefore = Instant.now().minus(retention);
+            int purged;
+            do {
+                purged = orderJdbcRepository.deleteProcessedCommands(processedBefore, batchSize);
+            } while (purged == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Failed to purge order outbox: {}", e.getMessage());
+        }
+    }
+
+    int deliverBatch() {
+        Instant now = Instant.now();
+        // The row locks of "for update skip locked" only keep other relays away until the lease is written
+        List<OutboxCommand> batch = transactionTemplate.execute(status -> orderJdbcRepository.claimDueCommands(now, now.plus(lease), batchSize));
+        List<Future<OrderStatusResponse>> deliveries = batch.stream()
+                .map(command -> workers.submit(() -> deliver(command)))
+                .toList();
+        for (Future<OrderStatusResponse> delivery : deliveries) {
+            try {
+                delivery.get();
+            } catch (ExecutionException e) {
+                log.error("Failed to deliver order outbox command: {}", e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Delivers the command of an order placed synchronously on the calling thread. The command was recorded
+     * leased by {@link OrderOutbox#reserveStock(Order, Instant)}, so the scheduled relay only takes it over if
+     * this delivery fails transiently or the instance dies before completing the order.
+     *
+     * @return the order's status afterwards; {@link OrderStatus#PENDING PENDING} if the relay retries it
+     */
+    public OrderStatusResponse deliverNow(Order order, long commandId) {
+        OutboxCommand command = new OutboxCommand(commandId, order.getId(), order.getOrderNumber(), OrderCommandType.RESERVE_STOCK,
+                null, 0, order.getCreatedAt());
+        return deliver(command, () -> OrderOutbox.toStockLines(order));
+    }
+
+    private OrderStatusResponse deliver(OutboxCommand command) {
+        return deliver(command, () -> readStockLines(command));
+    }
+
+    private OrderStatusResponse deliver(OutboxCommand command, Supplier<List<StockLineRequest>> stockLines) {
+        List<StockLineRequest> lines;
+        try {
+            lines = stockLines.get();
+        } catch (IllegalStateException e) {
+            // Never sent, so nothing can have been reduced
+            complete(command, OrderStatus.FAILED, e.getMessage());
+            log.error("Order {} failed: {}", command.orderNumber(), e.getMessage());
+            return new OrderStatusResponse(command.orderNumber(), OrderStatus.FAILED, e.getMessage());
+        }
+        try {
+            orderProcessor.reserveStock(lines, command.orderNumber());
+            complete(command, OrderStatus.PLACED, null);
+            log.info("Order {} placed succesfully and stock reduced", command.orderNumber());
+            return new OrderStatusResponse(command.orderNumber(), OrderStatus.PLACED, null);
+        } catch (ProductNotInStockException e) {
+            complete(command, OrderStatus.OUT_OF_STOCK, e.getMessage());
+            log.info("Order {} rejected: {}", command.orderNumber(), e.getMessage());
+            return new OrderStatusResponse(command.orderNumber(), OrderStatus.OUT_OF_STOCK, e.getMessage());
+        } catch (HttpClientErrorException e) {
+            complete(command, OrderStatus.FAILED, e.getMessage());
+            log.error("Order {} failed: {}", command.orderNumber(), e.getMessage());
+            return new OrderStatusResponse(command.orderNumber(), OrderStatus.FAILED, e.getMessage());
+        } catch (RuntimeException e) {
+            // The outcome is unknown; redelivery is safe since the reduction is idempotent on the order number
+            Instant nextAttemptAt = Instant.now().plus(backoffFor(command.attempts()));
+            orderJdbcRepository.rescheduleCommand(command.id(), abbreviate(e.getMessage()), nextAttemptAt);
+            retryCounter.increment();
+            if (command.attempts() + 1 >= maxAttempts) {
+                unresolvedCounter.increment();
+                log.error("Delivery of order {} still has no definite answer after {} attempts, retrying at {}: {}",
+                        command.orderNumber(), command.attempts() + 1, nextAttemptAt, e.getMessage());
+            } else {
+                log.warn("Delivery of order {} failed, retrying at {}: {}", command.orderNumber(), nextAttemptAt, e.getMessage());
+            }
+            return new OrderStatusResponse(command.orderNumber(), OrderStatus.PENDING, e.getMessage());
+        }
+    }
+
+    private void complete(OutboxCommand command, OrderStatus status, String failureReason) {
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(transactionStatus -> {
+            orderJdbcRepository.markCommandProcessed(command.id(), abbreviate(failureReason), now);
+            int completed = orderRepository.completePending(command.orderId(), status, abbreviate(failureReason));
+            if (completed == 1 && status == OrderStatus.PLACED) {
+                orderSalesStats.placed(command.orderId());
+            }
+        });
+        processingTimer.record(Duration.between(command.createdAt(), now));
+    }
+
+    private Duration backoffFor(int attempts) {
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private List<StockLineRequest> readStockLines(OutboxCommand command) {
+        try {
+            return objectMapper.readValue(command.payload(), STOCK_LINES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read payload of outbox command " + command.id(), e);
+        }
+    }
+
+    private static String abbreviate(String message) {
+        return message == null || message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,46 @@
+package com.talha.microservices.order.service;
+
+import com.talha.microservices.order.client.InventoryClient;
+import com.talha.microservices.order.dto.StockLineRequest;
+import com.talha.microservices.order.dto.StockLineResponse;
+import com.talha.microservices.order.exception.ProductNotInStockException;
+import com.talha.microservices.order.model.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Does the inventory work of an order: all lines are checked and reduced in one batched, all-or-nothing
+ * call. The order number is sent as the reduction's request ID, so delivering the same order again after a
+ * crash or a retry never reduces its stock twice.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderProcessor {
+
+    private static final ParameterizedTypeReference<List<StockLineResponse>> STOCK_LINES = new ParameterizedTypeReference<>() {
+    };
+
+    private final InventoryClient inventoryClient;
+
+    public void reserveStock(Order order) {
+        reserveStock(OrderOutbox.toStockLines(order), order.getOrderNumber());
+    }
+
+    /**
+     * @throws ProductNotInStockException if any line is short; nothing has been reduced then
+     */
+    public void reserveStock(List<StockLineRequest> stockLines, String orderNumber) {
+        try {
+            inventoryClient.reduceStock(stockLines, orderNumber);
+        } catch (HttpClientErrorException.BadRequest e) {
+            List<StockLineResponse> failedLines = e.getResponseBodyAs(STOCK_LINES);
+            String skuCodes = failedLines == null ? "" : failedLines.stream().map(StockLineResponse::skuCode).collect(Collectors.joining(", "));
+            throw new ProductNotInStockException("Products with SkuCode " + skuCodes + " are not in stock");
+        }
+    }
+}
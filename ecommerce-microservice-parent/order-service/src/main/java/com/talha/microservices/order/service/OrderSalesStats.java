@@ -0,0 +1,30 @@
+package com.talha.microservices.order.service;
+
+import com.talha.microservices.order.model.OrderStatus;
+import com.talha.microservices.order.repository.OrderSalesStatsJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps {@code t_order_sales_stats} (units, revenue and orders per SKU and hour) in step with the orders that
+ * are {@link OrderStatus#PLACED PLACED}. Callers run it in the transaction that places or deletes the order, so
+ * the counters never drift from {@code t_orders}; the order and its lines must already be flushed.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSalesStats {
+
+    private final OrderSalesStatsJdbcRepository orderSalesStatsJdbcRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void placed(long orderId) {
+        orderSalesStatsJdbcRepository.apply(orderId, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(long orderId) {
+        orderSalesStatsJdbcRepository.apply(orderId, -1);
+    }
+}
@@ -1,56 +1,144 @@
 package com.talha.microservices.order.service;
 
-import com.talha.microservices.order.client.InventoryClient;
+import com.talha.microservices.order.dto.OrderFilter;
+import com.talha.microservices.order.dto.OrderLineRequest;
+import com.talha.microservices.order.dto.OrderLineResponse;
 import com.talha.microservices.order.dto.OrderRequest;
 import com.talha.microservices.order.dto.OrderResponse;
+import com.talha.microservices.order.dto.OrderStatusResponse;
+import com.talha.microservices.order.dto.OrderSummaryResponse;
+import com.talha.microservices.order.dto.SalesStatsResponse;
+import com.talha.microservices.order.dto.StatsGranularity;
+import com.talha.microservices.order.exception.InvalidOrderException;
 import com.talha.microservices.order.exception.OrderNotFoundException;
 import com.talha.microservices.order.exception.ProductNotInStockException;
+import com.talha.microservices.order.id.OrderNumberGenerator;
+import com.talha.microservices.order.id.OrderNumbers;
 import com.talha.microservices.order.model.Order;
+import com.talha.microservices.order.model.OrderLine;
+import com.talha.microservices.order.model.OrderStatus;
+import com.talha.microservices.order.repository.OrderJdbcRepository;
 import com.talha.microservices.order.repository.OrderRepository;
-import lombok.RequiredArgsConstructor;
+import com.talha.microservices.order.repository.OrderSalesStatsJdbcRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class OrderService {
 
     private final OrderRepository orderRepository;
 
-    private final InventoryClient inventoryClient;
-
-    public OrderResponse placeOrder(OrderRequest orderRequest){
-
-        var isProductInStock = inventoryClient.isInStock(orderRequest.skuCode(), orderRequest.quantity());
-
-        if(isProductInStock){
-                Order order = Order.builder()
-                        .orderNumber(UUID.randomUUID().toString())
-                        .price(orderRequest.price())
-                        .skuCode(orderRequest.skuCode())
-                        .quantity(orderRequest.quantity())
-                        .build();
-                orderRepository.save(order);
-                inventoryClient.reduceStock(orderRequest.skuCode(), orderRequest.quantity());
-                log.info("Order placed succesfully and stock reduced");
-                return mapToOrderResponse(order);
-        } else {
-            String errorMessage = "Product with SkuCode " + orderRequest.skuCode() + " is not in stock";
-            log.error(errorMessage);
-            throw new ProductNotInStockException(errorMessage);
+    private final OrderJdbcRepository orderJdbcRepository;
+
+    private final OrderOutboxRelay orderOutboxRelay;
+
+    private final OrderOutbox orderOutbox;
+
+    private final OrderSalesStats orderSalesStats;
+
+    private final OrderSalesStatsJdbcRepository orderSalesStatsJdbcRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final OrderNumberGenerator orderNumberGenerator;
+
+    private final boolean asyncIntake;
+
+    private final Duration outboxLease;
+
+    public OrderService(OrderRepository orderRepository,
+                        OrderJdbcRepository orderJdbcRepository,
+                        OrderOutboxRelay orderOutboxRelay,
+                        OrderOutbox orderOutbox,
+                        OrderSalesStats orderSalesStats,
+                        OrderSalesStatsJdbcRepository orderSalesStatsJdbcRepository,
+                        PlatformTransactionManager transactionManager,
+                        OrderNumberGenerator orderNumberGenerator,
+                        @Value("${order.intake.async}") boolean asyncIntake,
+                        @Value("${order.outbox.lease}") Duration outboxLease) {
+        this.orderRepository = orderRepository;
+        this.orderJdbcRepository = orderJdbcRepository;
+        this.orderOutboxRelay = orderOutboxRelay;
+        this.orderOutbox = orderOutbox;
+        this.orderSalesStats = orderSalesStats;
+        this.orderSalesStatsJdbcRepository = orderSalesStatsJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.asyncIntake = asyncIntake;
+        this.outboxLease = outboxLease;
+    }
+
+    public OrderResponse placeOrder(OrderRequest orderRequest) {
+        return placeOrder(orderRequest, false);
+    }
+
+    /**
+     * Every order is written together with its lines and a {@code RESERVE_STOCK} command in one local
+     * transaction before any stock is reduced. In async mode, enabled by {@code order.intake.async} or requested
+     * by the caller, the order stays {@link OrderStatus#PENDING PENDING} until {@link OrderOutboxRelay} delivers
+     * the command. Otherwise the command is delivered right away on the calling thread; if that fails
+     * transiently, or this instance dies before the order is completed, the relay takes it over, so stock is
+     * never reduced for an order that was not stored.
+     */
+    public OrderResponse placeOrder(OrderRequest orderRequest, boolean respondAsync) {
+        Order order = newOrder(orderRequest);
+        order.setStatus(OrderStatus.PENDING);
+
+        if (asyncIntake || respondAsync) {
+            transactionTemplate.executeWithoutResult(status -> {
+                // The outbox row references the order, so it has to reach the database first
+                orderRepository.saveAndFlush(order);
+                orderOutbox.reserveStock(order);
+            });
+            log.info("Order {} accepted for processing", order.getOrderNumber());
+            return mapToOrderResponse(order);
+        }
+
+        long commandId = transactionTemplate.execute(status -> {
+            orderRepository.saveAndFlush(order);
+            return orderOutbox.reserveStock(order, Instant.now().plus(outboxLease));
+        });
+        OrderStatusResponse delivery = orderOutboxRelay.deliverNow(order, commandId);
+        order.setStatus(delivery.status());
+        switch (delivery.status()) {
+            case OUT_OF_STOCK -> {
+                log.error(delivery.failureReason());
+                throw new ProductNotInStockException(delivery.failureReason());
+            }
+            case FAILED -> throw new IllegalStateException("Order " + order.getOrderNumber() + " failed: " + delivery.failureReason());
+            case PENDING -> log.warn("Order {} could not be placed right away and is retried in the background", order.getOrderNumber());
+            default -> log.info("Order placed succesfully and stock reduced");
         }
+        return mapToOrderResponse(order);
     }
 
-    public List<OrderResponse> getAllOrders() {
-        return orderRepository.findAll()
-                .stream()
-                .map(this::mapToOrderResponse)
-                .collect(Collectors.toList());
+    public OrderStatusResponse getOrderStatus(String orderNumber) {
+        if (!OrderNumbers.isValid(orderNumber)) {
+            throw new OrderNotFoundException("Order not found with order number: " + orderNumber);
+        }
+        Order order = orderRepository.findByOrderNumber(orderNumber)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with order number: " + orderNumber));
+        return new OrderStatusResponse(order.getOrderNumber(), order.getStatus(), order.getFailureReason());
+    }
+
+    public List<OrderSummaryResponse> getOrders(OrderFilter filter, Long afterId, int limit) {
+        if (filter.orderNumber() != null && !OrderNumbers.isValid(filter.orderNumber())) {
+            return List.of();
+        }
+        return orderJdbcRepository.findSummaries(filter, afterId == null ? 0L : afterId, limit);
+    }
+
+    public List<SalesStatsResponse> getSalesStats(String skuCode, Instant from, Instant to, StatsGranularity granularity) {
+        return orderSalesStatsJdbcRepository.find(skuCode, from, to, granularity);
     }
 
     public OrderResponse getOrderById(Long id) {
@@ -60,13 +148,50 @@ public class OrderService {
     }
 
     public void deleteOrderById(Long id) {
-            Order order = orderRepository.findById(id)
-                    .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + id));
-            orderRepository.delete(order);
-            log.info("Order id: {} name: {} has been deleted", order.getId(), order.getSkuCode());
+            Order order = transactionTemplate.execute(status -> {
+                Order found = orderRepository.findById(id)
+                        .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + id));
+                if (found.getStatus() == OrderStatus.PLACED) {
+                    orderSalesStats.deleted(found.getId());
+                }
+                orderRepository.delete(found);
+                return found;
+            });
+            log.info("Order id: {} number: {} has been deleted", order.getId(), order.getOrderNumber());
+    }
+
+    Order newOrder(OrderRequest orderRequest) {
+        return Order.builder()
+                .orderNumber(orderNumberGenerator.next())
+                .lines(mapToOrderLines(orderRequest))
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    private List<OrderLine> mapToOrderLines(OrderRequest orderRequest) {
+        if (orderRequest.lines() == null || orderRequest.lines().isEmpty()) {
+            throw new InvalidOrderException("Order must have at least one line");
+        }
+        List<OrderLine> lines = new ArrayList<>(orderRequest.lines().size());
+        for (OrderLineRequest line : orderRequest.lines()) {
+            if (line.skuCode() == null || line.skuCode().isBlank() || line.price() == null || line.price().signum() < 0
+                    || line.quantity() == null || line.quantity() <= 0) {
+                throw new InvalidOrderException("Invalid order line: " + line);
+            }
+            lines.add(OrderLine.builder()
+                    .skuCode(line.skuCode())
+                    .price(line.price())
+                    .quantity(line.quantity())
+                    .build());
+        }
+        return lines;
     }
 
     private OrderResponse mapToOrderResponse(Order order) {
-        return new OrderResponse(order.getId(), order.getOrderNumber(), order.getSkuCode(), order.getPrice(), order.getQuantity());
+        List<OrderLineResponse> lines = order.getLines()
+                .stream()
+                .map(line -> new OrderLineResponse(line.getId(), line.getSkuCode(), line.getPrice(), line.getQuantity()))
+                .toList();
+        return new OrderResponse(order.getId(), order.getOrderNumber(), lines, order.getStatus(), order.getCreatedAt());
     }
 }
@@ -0,0 +1,6 @@
+ALTER TABLE `t_order_idempotency_keys`
+    ADD COLUMN `lease_until` datetime(6) DEFAULT NULL;
+
+UPDATE `t_order_idempotency_keys`
+SET `lease_until` = `created_at`
+WHERE `status_code` IS NULL;
@@ -0,0 +1,5 @@
+ALTER TABLE `t_orders`
+    ADD COLUMN `status`         varchar(32)  NOT NULL DEFAULT 'PLACED',
+    ADD COLUMN `failure_reason` varchar(255) DEFAULT NULL,
+    ADD UNIQUE KEY `uk_orders_order_number` (`order_number`),
+    ADD KEY `idx_orders_status` (`status`);
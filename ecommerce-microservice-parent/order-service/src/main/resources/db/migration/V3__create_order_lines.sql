@@ -0,0 +1,21 @@
+CREATE TABLE `t_order_lines`
+(
+    `id`       bigint(20)     NOT NULL AUTO_INCREMENT,
+    `order_id` bigint(20)     NOT NULL,
+    `sku_code` varchar(255)   NOT NULL,
+    `price`    decimal(19, 2) NOT NULL,
+    `quantity` int(11)        NOT NULL,
+    PRIMARY KEY (`id`),
+    KEY `idx_order_lines_order_id` (`order_id`),
+    CONSTRAINT `fk_order_lines_order` FOREIGN KEY (`order_id`) REFERENCES `t_orders` (`id`) ON DELETE CASCADE
+);
+
+INSERT INTO `t_order_lines` (`order_id`, `sku_code`, `price`, `quantity`)
+SELECT `id`, `sku_code`, `price`, `quantity`
+FROM `t_orders`
+WHERE `sku_code` IS NOT NULL;
+
+ALTER TABLE `t_orders`
+    DROP COLUMN `sku_code`,
+    DROP COLUMN `price`,
+    DROP COLUMN `quantity`;
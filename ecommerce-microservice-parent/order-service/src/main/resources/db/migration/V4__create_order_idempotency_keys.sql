@@ -0,0 +1,10 @@
+CREATE TABLE `t_order_idempotency_keys`
+(
+    `idempotency_key` varchar(255) NOT NULL,
+    `request_hash`    binary(32)   NOT NULL,
+    `status_code`     int(11)      DEFAULT NULL,
+    `response_body`   mediumtext   DEFAULT NULL,
+    `created_at`      datetime(6)  NOT NULL,
+    PRIMARY KEY (`idempotency_key`),
+    KEY `idx_idempotency_keys_created_at` (`created_at`)
+);
@@ -0,0 +1,26 @@
+CREATE TABLE `t_order_outbox`
+(
+    `id`              bigint(20)   NOT NULL AUTO_INCREMENT,
+    `order_id`        bigint(20)   NOT NULL,
+    `order_number`    varchar(255) NOT NULL,
+    `command_type`    varchar(32)  NOT NULL,
+    `payload`         text         NOT NULL,
+    `attempts`        int(11)      NOT NULL DEFAULT 0,
+    `next_attempt_at` datetime(6)  NOT NULL,
+    `last_error`      varchar(255) DEFAULT NULL,
+    `created_at`      datetime(6)  NOT NULL,
+    `processed_at`    datetime(6)  DEFAULT NULL,
+    PRIMARY KEY (`id`),
+    KEY `idx_order_outbox_due` (`processed_at`, `next_attempt_at`),
+    CONSTRAINT `fk_order_outbox_order` FOREIGN KEY (`order_id`) REFERENCES `t_orders` (`id`) ON DELETE CASCADE
+);
+
+-- Orders accepted before the outbox existed get their command now
+INSERT INTO `t_order_outbox` (`order_id`, `order_number`, `command_type`, `payload`, `next_attempt_at`, `created_at`)
+SELECT o.`id`, o.`order_number`, 'RESERVE_STOCK',
+       JSON_ARRAYAGG(JSON_OBJECT('skuCode', l.`sku_code`, 'quantity', l.`quantity`)),
+       NOW(6), NOW(6)
+FROM `t_orders` o
+         JOIN `t_order_lines` l ON l.`order_id` = o.`id`
+WHERE o.`status` = 'PENDING'
+GROUP BY o.`id`, o.`order_number`;
@@ -0,0 +1,16 @@
+ALTER TABLE `t_orders`
+    ADD COLUMN `order_number_bin` binary(16) DEFAULT NULL AFTER `id`;
+
+-- UUID_TO_BIN raises an error for anything but a UUID, so an order number that cannot be converted fails the
+-- migration instead of being dropped
+UPDATE `t_orders`
+SET `order_number_bin` = UUID_TO_BIN(`order_number`)
+WHERE `order_number` IS NOT NULL;
+
+ALTER TABLE `t_orders`
+    DROP KEY `uk_orders_order_number`,
+    DROP COLUMN `order_number`;
+
+ALTER TABLE `t_orders`
+    RENAME COLUMN `order_number_bin` TO `order_number`,
+    ADD UNIQUE KEY `uk_orders_order_number` (`order_number`);
@@ -0,0 +1,6 @@
+ALTER TABLE `t_orders`
+    ADD COLUMN `created_at` datetime(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    ADD KEY `idx_orders_created_at` (`created_at`);
+
+ALTER TABLE `t_order_lines`
+    ADD KEY `idx_order_lines_sku_code` (`sku_code`, `order_id`);
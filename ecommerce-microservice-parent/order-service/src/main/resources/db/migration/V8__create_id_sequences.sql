@@ -0,0 +1,16 @@
+CREATE TABLE `t_id_sequences`
+(
+    `sequence_name` varchar(64) NOT NULL,
+    `next_val`      bigint      NOT NULL,
+    PRIMARY KEY (`sequence_name`)
+);
+
+-- Ids are handed out in pooled blocks of 50: the stored value is the upper bound of the next block,
+-- so seed it one full block past the ids the auto_increment columns have already used.
+INSERT INTO `t_id_sequences` (`sequence_name`, `next_val`)
+SELECT 't_orders', COALESCE(MAX(`id`), 0) + 50
+FROM `t_orders`;
+
+INSERT INTO `t_id_sequences` (`sequence_name`, `next_val`)
+SELECT 't_order_lines', COALESCE(MAX(`id`), 0) + 50
+FROM `t_order_lines`;
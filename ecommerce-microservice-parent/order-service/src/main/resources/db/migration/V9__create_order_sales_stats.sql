@@ -0,0 +1,21 @@
+CREATE TABLE `t_order_sales_stats`
+(
+    `sku_code`     varchar(255)   NOT NULL,
+    `bucket_start` datetime       NOT NULL,
+    `units`        bigint         NOT NULL,
+    `revenue`      decimal(38, 2) NOT NULL,
+    `order_count`  bigint         NOT NULL,
+    PRIMARY KEY (`sku_code`, `bucket_start`),
+    KEY `idx_order_sales_stats_bucket_start` (`bucket_start`)
+);
+
+INSERT INTO `t_order_sales_stats` (`sku_code`, `bucket_start`, `units`, `revenue`, `order_count`)
+SELECT l.`sku_code`,
+       DATE_FORMAT(o.`created_at`, '%Y-%m-%d %H:00:00'),
+       SUM(l.`quantity`),
+       SUM(l.`price` * l.`quantity`),
+       COUNT(DISTINCT o.`id`)
+FROM `t_orders` o
+         JOIN `t_order_lines` l ON l.`order_id` = o.`id`
+WHERE o.`status` = 'PLACED'
+GROUP BY l.`sku_code`, DATE_FORMAT(o.`created_at`, '%Y-%m-%d %H:00:00');
@@ -0,0 +1,168 @@
+package com.talha.microservices.order;
+
+import com.talha.microservices.order.service.OrderOutboxRelay;
+import com.talha.microservices.order.stubs.InventoryClientStub;
+import io.restassured.RestAssured;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Drives {@link OrderOutboxRelay} by hand: the scheduled relay only runs once at startup, and inventory
+ * calls are neither retried by Resilience4j nor short-circuited, so every delivery attempt reaches WireMock.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"order.outbox.relay-interval=3600000",
+		"order.outbox.batch-size=5",
+		"order.outbox.workers=4",
+		"order.outbox.max-attempts=3",
+		"order.outbox.backoff=50ms",
+		"order.outbox.max-backoff=200ms",
+		"resilience4j.retry.instances.inventory.max-attempts=1",
+		"resilience4j.circuitbreaker.instances.inventory.slidingWindowSize=100",
+		"resilience4j.circuitbreaker.instances.inventory.minimum-number-of-calls=100"
+})
+@AutoConfigureWireMock(port = 0)
+class OrderOutboxRelayTests {
+
+	@ServiceConnection
+	static MySQLContainer mySQLContainer = new MySQLContainer("mysql:8.3.0");
+	@LocalServerPort
+	private Integer port;
+	@Autowired
+	private OrderOutboxRelay orderOutboxRelay;
+
+	static {
+		mySQLContainer.start();
+	}
+
+	@BeforeEach
+	void setup() {
+		RestAssured.baseURI = "http://localhost";
+		RestAssured.port = port;
+	}
+
+	@Test
+	void shouldPlacePendingOrderWhenStockIsReduced() throws InterruptedException {
+		InventoryClientStub.stubInventoryBatchReduceCall("relay_placed", 2);
+		String orderNumber = acceptOrder("relay_placed", 2);
+
+		assertThat(relayUntilFinal(orderNumber), Matchers.is("PLACED"));
+		assertThat(reductionsOf(orderNumber), Matchers.is(1));
+	}
+
+	@Test
+	void shouldRejectPendingOrderWhenInventoryAnswersBadRequest() throws InterruptedException {
+		InventoryClientStub.stubInventoryBatchReduceOutOfStockCall("relay_sold_out", 3, 1);
+		String orderNumber = acceptOrder("relay_sold_out", 3);
+
+		assertThat(relayUntilFinal(orderNumber), Matchers.is("OUT_OF_STOCK"));
+		assertThat(reductionsOf(orderNumber), Matchers.is(1));
+		RestAssured.given()
+				.when()
+				.get("/api/order/" + orderNumber + "/status")
+				.then()
+				.statusCode(200)
+				.body("failureReason", Matchers.containsString("relay_sold_out"));
+	}
+
+	@Test
+	void shouldKeepRetryingPendingOrderPastMaxAttemptsOfServerErrors() throws InterruptedException {
+		InventoryClientStub.stubInventoryBatchReduceServerError("relay_unavailable", 1);
+		String orderNumber = acceptOrder("relay_unavailable", 1);
+
+		for (int attempt = 0; attempt < 10; attempt++) {
+			orderOutboxRelay.relay();
+			Thread.sleep(250);
+		}
+		// A 503 does not say whether the reduction was applied, so the order must not be given up
+		assertThat(status(orderNumber), Matchers.is("PENDING"));
+		assertThat(reductionsOf(orderNumber) > 3, Matchers.is(true));
+
+		InventoryClientStub.stubInventoryBatchReduceCall("relay_unavailable", 1);
+		assertThat(relayUntilFinal(orderNumber), Matchers.is("PLACED"));
+	}
+
+	@Test
+	void shouldDeliverEachCommandOnceWhenTwoRelaysRunSideBySide() throws Exception {
+		InventoryClientStub.stubInventoryBatchReduceCall("relay_shared", 1, 100);
+		List<String> orderNumbers = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			orderNumbers.add(acceptOrder("relay_shared", 1));
+		}
+
+		List<Future<?>> relays = new ArrayList<>();
+		try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+			for (int i = 0; i < 2; i++) {
+				relays.add(executor.submit(orderOutboxRelay::relay));
+			}
+		}
+		for (Future<?> relay : relays) {
+			relay.get();
+		}
+
+		for (String orderNumber : orderNumbers) {
+			assertThat(status(orderNumber), Matchers.is("PLACED"));
+			assertThat(reductionsOf(orderNumber), Matchers.is(1));
+		}
+	}
+
+	private String acceptOrder(String skuCode, int quantity) {
+		return RestAssured.given()
+				.contentType("application/json")
+				.header("Prefer", "respond-async")
+				.body("{\"lines\": [{\"skuCode\": \"" + skuCode + "\", \"price\": 10, \"quantity\": " + quantity + "}]}")
+				.when()
+				.post("/api/order")
+				.then()
+				.statusCode(202)
+				.body("status", Matchers.is("PENDING"))
+				.extract()
+				.path("orderNumber");
+	}
+
+	private String relayUntilFinal(String orderNumber) throws InterruptedException {
+		String status = "PENDING";
+		for (int attempt = 0; attempt < 50 && status.equals("PENDING"); attempt++) {
+			orderOutboxRelay.relay();
+			status = status(orderNumber);
+			if (status.equals("PENDING")) {
+				Thread.sleep(100);
+			}
+		}
+		return status;
+	}
+
+	private String status(String orderNumber) {
+		return RestAssured.given()
+				.when()
+				.get("/api/order/" + orderNumber + "/status")
+				.then()
+				.statusCode(200)
+				.extract()
+				.path("status");
+	}
+
+	private int reductionsOf(String orderNumber) {
+		return findAll(postRequestedFor(urlPathEqualTo("/api/inventory/reduce/batch"))
+				.withQueryParam("requestId", equalTo(orderNumber))).size();
+	}
+}
@@ -0,0 +1,309 @@
+package com.talha.microservices.order;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.talha.microservices.order.id.OrderNumberGenerator;
+import com.talha.microservices.order.id.OrderNumbers;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Load comparisons run with {@code mvn test -Pload-test}.
+ * <p>
+ * Compares synchronous {@code POST /api/order} under the platform-thread and the {@code virtual-threads}
+ * configuration against an inventory-service stub that answers the batched reduction after a fixed delay,
+ * the insert rate of time-ordered {@code binary(16)} order numbers against random UUID strings,
+ * {@code POST /api/order/bulk} against placing the same orders one request at a time, and, at the JPA layer
+ * alone, persisting orders with {@code IDENTITY} ids against pooled {@code TABLE} ids with JDBC batching.
+ */
+@Tag("load")
+class OrderPlacementLoadTest {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderPlacementLoadTest.class);
+
+	private static final int INVENTORY_DELAY_MILLIS = 200;
+	private static final int CONCURRENT_CLIENTS = 400;
+	private static final int REQUESTS_PER_CLIENT = 5;
+	private static final int INSERT_BATCHES = 500;
+	private static final int INSERT_BATCH_SIZE = 1000;
+	private static final int IMPORTED_ORDERS = 20_000;
+	private static final int PERSISTED_ORDERS = 50_000;
+	private static final int PERSIST_CHUNK_SIZE = 500;
+
+	static MySQLContainer mySQLContainer = new MySQLContainer("mysql:8.3.0");
+	static WireMockServer inventoryStub = new WireMockServer(wireMockConfig().dynamicPort().containerThreads(CONCURRENT_CLIENTS + 50));
+
+	@BeforeAll
+	static void startDependencies() {
+		mySQLContainer.start();
+		inventoryStub.start();
+		inventoryStub.stubFor(post(urlPathEqualTo("/api/inventory/reduce/batch"))
+				.willReturn(aResponse()
+						.withStatus(200)
+						.withHeader("Content-Type", "application/json")
+						.withBody("[]")
+						.withFixedDelay(INVENTORY_DELAY_MILLIS)));
+	}
+
+	@AfterAll
+	static void stopDependencies() {
+		inventoryStub.stop();
+		mySQLContainer.stop();
+	}
+
+	@Test
+	void shouldServeMoreOrdersWithVirtualThreads() throws Exception {
+		LoadResult platform = runLoad("default");
+		LoadResult virtual = runLoad("virtual-threads");
+		log.info("platform threads: {}", platform);
+		log.info("virtual threads:  {}", virtual);
+
+		assertThat(platform.failures(), is(0));
+		assertThat(virtual.failures(), is(0));
+		assertThat(virtual.throughput(), greaterThan(platform.throughput()));
+	}
+
+	@Test
+	void shouldInsertTimeOrderedOrderNumbersFaster() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(mySQLContainer.getJdbcUrl() + "?rewriteBatchedStatements=true",
+				mySQLContainer.getUsername(), mySQLContainer.getPassword());
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table t_load_random_uuid (id bigint auto_increment primary key, order_number varchar(255) not null, unique key (order_number))");
+		jdbcTemplate.execute("create table t_load_time_ordered (id bigint auto_increment primary key, order_number binary(16) not null, unique key (order_number))");
+		OrderNumberGenerator generator = new OrderNumberGenerator(1);
+
+		double randomUuid = insertRate(jdbcTemplate, "t_load_random_uuid", () -> UUID.randomUUID().toString());
+		double timeOrdered = insertRate(jdbcTemplate, "t_load_time_ordered", () -> OrderNumbers.parse(generator.next()));
+		log.info("random UUID varchar(255): {} inserts/s", String.format("%.0f", randomUuid));
+		log.info("time-ordered binary(16):  {} inserts/s", String.format("%.0f", timeOrdered));
+
+		assertThat(timeOrdered, greaterThan(randomUuid));
+	}
+
+	@Test
+	void shouldImportOrdersFasterInBulk() throws Exception {
+		String order = "{\"lines\": [{\"skuCode\": \"iphone_15\", \"price\": 100, \"quantity\": 1}, {\"skuCode\": \"pixel_9\", \"price\": 80, \"quantity\": 2}]}";
+		try (ConfigurableApplicationContext context = startOrderService("default", "order.intake.async=true", "order.outbox.relay-interval=3600000")) {
+			String orderUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/order";
+			HttpClient httpClient = HttpClient.newHttpClient();
+			HttpRequest single = HttpRequest.newBuilder(URI.create(orderUrl))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(order))
+					.build();
+
+			long started = System.nanoTime();
+			for (int i = 0; i < IMPORTED_ORDERS; i++) {
+				assertThat(httpClient.send(single, HttpResponse.BodyHandlers.discarding()).statusCode(), is(202));
+			}
+			double singleRate = IMPORTED_ORDERS / ((System.nanoTime() - started) / 1_000_000_000.0);
+
+			HttpRequest bulk = HttpRequest.newBuilder(URI.create(orderUrl + "/bulk"))
+					.header("Content-Type", "application/x-ndjson")
+					.POST(HttpRequest.BodyPublishers.ofString((order + "\n").repeat(IMPORTED_ORDERS)))
+					.build();
+			started = System.nanoTime();
+			assertThat(httpClient.send(bulk, HttpResponse.BodyHandlers.discarding()).statusCode(), is(200));
+			double bulkRate = IMPORTED_ORDERS / ((System.nanoTime() - started) / 1_000_000_000.0);
+
+			log.info("one request per order: {} orders/s", String.format("%.0f", singleRate));
+			log.info("bulk import:           {} orders/s", String.format("%.0f", bulkRate));
+			assertThat(bulkRate, greaterThan(singleRate));
+		}
+	}
+
+	@Test
+	void shouldPersistOrdersFasterWithPooledTableIds() {
+		double identity = persistRate(IdentityOrder.class, IdentityOrder::new);
+		double pooled = persistRate(PooledOrder.class, PooledOrder::new);
+		log.info("IDENTITY ids:                   {} orders/s", String.format("%.0f", identity));
+		log.info("pooled TABLE ids, batch_size=50: {} orders/s", String.format("%.0f", pooled));
+
+		assertThat(pooled, greaterThan(identity));
+	}
+
+	/**
+	 * Persists orders in transactions of {@link #PERSIST_CHUNK_SIZE}, as {@code saveAll} does for new entities,
+	 * with the JDBC settings of the order-service datasource.
+	 */
+	private <T> double persistRate(Class<T> entityClass, Function<String, T> newOrder) {
+		try (SessionFactory sessionFactory = new Configuration()
+				.addAnnotatedClass(entityClass)
+				.setProperty(AvailableSettings.JAKARTA_JDBC_URL, mySQLContainer.getJdbcUrl() + "?rewriteBatchedStatements=true")
+				.setProperty(AvailableSettings.JAKARTA_JDBC_USER, mySQLContainer.getUsername())
+				.setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, mySQLContainer.getPassword())
+				.setProperty(AvailableSettings.HBM2DDL_AUTO, "create")
+				.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+				.setProperty(AvailableSettings.ORDER_INSERTS, "true")
+				.buildSessionFactory()) {
+			OrderNumberGenerator generator = new OrderNumberGenerator(1);
+			long started = System.nanoTime();
+			for (int chunk = 0; chunk < PERSISTED_ORDERS / PERSIST_CHUNK_SIZE; chunk++) {
+				sessionFactory.inTransaction(session -> {
+					for (int i = 0; i < PERSIST_CHUNK_SIZE; i++) {
+						session.persist(newOrder.apply(generator.next()));
+					}
+				});
+			}
+			return PERSISTED_ORDERS / ((System.nanoTime() - started) / 1_000_000_000.0);
+		}
+	}
+
+	private double insertRate(JdbcTemplate jdbcTemplate, String table, Supplier<Object> orderNumbers) {
+		long started = System.nanoTime();
+		for (int batch = 0; batch < INSERT_BATCHES; batch++) {
+			List<Object[]> args = new ArrayList<>(INSERT_BATCH_SIZE);
+			for (int i = 0; i < INSERT_BATCH_SIZE; i++) {
+				args.add(new Object[]{orderNumbers.get()});
+			}
+			jdbcTemplate.batchUpdate("insert into " + table + " (order_number) values (?)", args);
+		}
+		return INSERT_BATCHES * INSERT_BATCH_SIZE / ((System.nanoTime() - started) / 1_000_000_000.0);
+	}
+
+	private LoadResult runLoad(String profile) throws Exception {
+		try (ConfigurableApplicationContext context = startOrderService(profile, "order.intake.async=false", "server.tomcat.threads.max=50")) {
+			String orderUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/order";
+			HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+			HttpRequest request = HttpRequest.newBuilder(URI.create(orderUrl))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString("""
+							{
+							     "lines": [{"skuCode": "iphone_15", "price": 100, "quantity": 1}]
+							}
+							"""))
+					.build();
+			// Warm up connections, JIT and the connection pool before measuring
+			httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+
+			long started = System.nanoTime();
+			List<Future<long[]>> clients = new ArrayList<>();
+			try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+				for (int i = 0; i < CONCURRENT_CLIENTS; i++) {
+					clients.add(executor.submit(() -> {
+						long[] latencies = new long[REQUESTS_PER_CLIENT];
+						for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+							long sent = System.nanoTime();
+							int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+							latencies[r] = status == 201 ? System.nanoTime() - sent : -1;
+						}
+						return latencies;
+					}));
+				}
+			}
+			long elapsed = System.nanoTime() - started;
+
+			long[] latencies = new long[CONCURRENT_CLIENTS * REQUESTS_PER_CLIENT];
+			int count = 0;
+			int failures = 0;
+			for (Future<long[]> client : clients) {
+				for (long latency : client.get()) {
+					if (latency < 0) {
+						failures++;
+					} else {
+						latencies[count++] = latency;
+					}
+				}
+			}
+			long[] succeeded = Arrays.copyOf(latencies, count);
+			Arrays.sort(succeeded);
+			double p99Millis = succeeded.length == 0 ? 0 : succeeded[(int) Math.ceil(succeeded.length * 0.99) - 1] / 1_000_000.0;
+			return new LoadResult(count / (elapsed / 1_000_000_000.0), p99Millis, failures);
+		}
+	}
+
+	private ConfigurableApplicationContext startOrderService(String profile, String... properties) {
+		return new SpringApplicationBuilder(OrderServiceApplication.class)
+				.profiles(profile)
+				.properties(
+						"server.port=0",
+						"spring.datasource.url=" + mySQLContainer.getJdbcUrl(),
+						"spring.datasource.username=" + mySQLContainer.getUsername(),
+						"spring.datasource.password=" + mySQLContainer.getPassword(),
+						"inventory.url=" + inventoryStub.baseUrl())
+				.properties(properties)
+				.run();
+	}
+
+	@Entity
+	@Table(name = "t_load_identity_orders")
+	static class IdentityOrder {
+
+		@Id
+		@GeneratedValue(strategy = GenerationType.IDENTITY)
+		Long id;
+		String orderNumber;
+
+		IdentityOrder() {
+		}
+
+		IdentityOrder(String orderNumber) {
+			this.orderNumber = orderNumber;
+		}
+	}
+
+	@Entity
+	@Table(name = "t_load_pooled_orders")
+	static class PooledOrder {
+
+		@Id
+		@GeneratedValue(strategy = GenerationType.TABLE, generator = "load_order_id")
+		@TableGenerator(name = "load_order_id", table = "t_load_id_sequences", pkColumnName = "sequence_name",
+				valueColumnName = "next_val", pkColumnValue = "t_load_pooled_orders", allocationSize = 50)
+		Long id;
+		String orderNumber;
+
+		PooledOrder() {
+		}
+
+		PooledOrder(String orderNumber) {
+			this.orderNumber = orderNumber;
+		}
+	}
+
+	private record LoadResult(double throughput, double p99Millis, int failures) {
+
+		@Override
+		public String toString() {
+			return String.format("%.1f orders/s, p99 %.1f ms, %d failures", throughput, p99Millis, failures);
+		}
+	}
+}
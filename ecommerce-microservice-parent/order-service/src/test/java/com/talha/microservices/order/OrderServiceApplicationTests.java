@@ -1,16 +1,40 @@
 package com.talha.microservices.order;
 
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import com.talha.microservices.order.repository.IdempotencyKeyJdbcRepository;
 import com.talha.microservices.order.stubs.InventoryClientStub;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.restassured.RestAssured;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
 import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
 import org.testcontainers.containers.MySQLContainer;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureWireMock(port = 0)
 class OrderServiceApplicationTests {
@@ -19,6 +43,10 @@ class OrderServiceApplicationTests {
 	static MySQLContainer mySQLContainer = new MySQLContainer("mysql:8.3.0");
 	@LocalServerPort
 	private Integer port;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Autowired
+	private IdempotencyKeyJdbcRepository idempotencyKeyJdbcRepository;
 
 	@BeforeEach
 	void setup() {
@@ -34,13 +62,16 @@ class OrderServiceApplicationTests {
 	void shouldSubmitOrder() {
 		String submitOrderJson = """
                 {
-                     "skuCode": "iphone_15",
-                     "price": 100,
-                     "quantity": 100
+                     "lines": [
+                          {
+                               "skuCode": "iphone_15",
+                               "price": 100,
+                               "quantity": 100
+                          }
+                     ]
                 }
                 """;
-		InventoryClientStub.stubInventoryCall("iphone_15", 100);
-		InventoryClientStub.stubInventoryReduceCall("iphone_15", 100);
+		InventoryClientStub.stubInventoryBatchReduceCall("iphone_15", 100);
 
 		var responseBodyString = RestAssured.given()
 				.contentType("application/json")
@@ -55,6 +86,242 @@ class OrderServiceApplicationTests {
 
 	}
 
+	@Test
+	void shouldReduceStockOfEveryLineInOneCall() {
+		String submitOrderJson = """
+                {
+                     "lines": [
+                          {
+                               "skuCode": "multi_a",
+                               "price": 10,
+                               "quantity": 1
+                          },
+                          {
+                               "skuCode": "multi_b",
+                               "price": 20,
+                               "quantity": 2
+                          },
+                          {
+                               "skuCode": "multi_a",
+                               "price": 10,
+                               "quantity": 3
+                          }
+                     ]
+                }
+                """;
+		InventoryClientStub.stubInventoryBatchReduceCall("multi_a", 4);
+
+		String orderNumber = RestAssured.given()
+				.contentType("application/json")
+				.body(submitOrderJson)
+				.when()
+				.post("/api/order")
+				.then()
+				.log().all()
+				.statusCode(201)
+				.body("status", Matchers.is("PLACED"))
+				.body("lines.size()", Matchers.is(3))
+				.extract()
+				.path("orderNumber");
+
+		List<LoggedRequest> reductions = findAll(postRequestedFor(urlPathEqualTo("/api/inventory/reduce/batch"))
+				.withQueryParam("requestId", equalTo(orderNumber)));
+		assertThat(reductions.size(), Matchers.is(1));
+		String reducedLines = reductions.get(0).getBodyAsString().replace(" ", "");
+		assertThat(reducedLines, Matchers.containsString("{\"skuCode\":\"multi_a\",\"quantity\":4}"));
+		assertThat(reducedLines, Matchers.containsString("{\"skuCode\":\"multi_b\",\"quantity\":2}"));
+	}
+
+	@Test
+	void shouldRejectOrderWhenProductIsOutOfStock() {
+		String submitOrderJson = """
+                {
+                     "lines": [
+                          {
+                               "skuCode": "sold_out_sku",
+                               "price": 100,
+                               "quantity": 5
+                          }
+                     ]
+                }
+                """;
+		InventoryClientStub.stubInventoryBatchReduceOutOfStockCall("sold_out_sku", 5, 1);
+
+		RestAssured.given()
+				.contentType("application/json")
+				.body(submitOrderJson)
+				.when()
+				.post("/api/order")
+				.then()
+				.log().all()
+				.statusCode(400)
+				.body(Matchers.containsString("sold_out_sku"));
+
+		RestAssured.given()
+				.queryParam("skuCode", "sold_out_sku")
+				.when()
+				.get("/api/order")
+				.then()
+				.statusCode(200)
+				.body("$.size()", Matchers.is(1))
+				.body("[0].status", Matchers.is("OUT_OF_STOCK"));
+	}
+
+	@Test
+	void shouldAcceptOrderAsynchronouslyWhenPreferred() throws InterruptedException {
+		String submitOrderJson = """
+                {
+                     "lines": [
+                          {
+                               "skuCode": "iphone_15_async",
+                               "price": 100,
+                               "quantity": 100
+                          }
+                     ]
+                }
+                """;
+		InventoryClientStub.stubInventoryBatchReduceCall("iphone_15_async", 100);
+
+		String orderNumber = RestAssured.given()
+				.contentType("application/json")
+				.header("Prefer", "respond-async")
+				.body(submitOrderJson)
+				.when()
+				.post("/api/order")
+				.then()
+				.log().all()
+				.statusCode(202)
+				.body("status", Matchers.is("PENDING"))
+				.body("lines.size()", Matchers.is(1))
+				.extract()
+				.path("orderNumber");
+
+		assertThat(awaitFinalStatus(orderNumber), Matchers.is("PLACED"));
+	}
+
+	@Test
+	void shouldReplayOrderForRepeatedIdempotencyKey() {
+		String submitOrderJson = """
+                {
+                     "lines": [
+                          {
+                               "skuCode": "iphone_16",
+                               "price": 100,
+                               "quantity": 2
+                          }
+                     ]
+                }
+                """;
+		InventoryClientStub.stubInventoryBatchReduceCall("iphone_16", 2);
+		String idempotencyKey = UUID.randomUUID().toString();
+
+		String orderNumber = RestAssured.given()
+				.contentType("application/json")
+				.header("Idempotency-Key", idempotencyKey)
+				.body(submitOrderJson)
+				.when()
+				.post("/api/order")
+				.then()
+				.log().all()
+				.statusCode(201)
+				.extract()
+				.path("orderNumber");
+
+		RestAssured.given()
+				.contentType("application/json")
+				.header("Idempotency-Key", idempotencyKey)
+				.body(submitOrderJson)
+				.when()
+				.post("/api/order")
+				.then()
+				.log().all()
+				.statusCode(201)
+				.header("Idempotent-Replayed", "true")
+				.body("orderNumber", Matchers.is(orderNumber));
+
+		RestAssured.given()
+				.contentType("application/json")
+				.header("Idempotency-Key", idempotencyKey)
+				.body(submitOrderJson.replace("\"quantity\": 2", "\"quantity\": 3"))
+				.when()
+				.post("/api/order")
+				.then()
+				.statusCode(422);
+
+		RestAssured.given()
+				.contentType("application/json")
+				.header("Idempotency-Key", "k".repeat(256))
+				.body(submitOrderJson)
+				.when()
+				.post("/api/order")
+				.then()
+				.statusCode(400);
+	}
+
+	@Test
+	void shouldNotCompleteIdempotencyClaimThatWasTakenOver() {
+		String idempotencyKey = UUID.randomUUID().toString();
+		byte[] requestHash = new byte[32];
+		Instant firstClaim = Instant.now().truncatedTo(ChronoUnit.MICROS).minusSeconds(120);
+		Instant secondClaim = firstClaim.plusSeconds(60);
+
+		assertThat(idempotencyKeyJdbcRepository.claim(idempotencyKey, requestHash, firstClaim, firstClaim.minus(Duration.ofDays(1)), firstClaim.plusSeconds(30)), Matchers.is(true));
+		// The first owner's lease ran out, so a second request takes the key over
+		assertThat(idempotencyKeyJdbcRepository.claim(idempotencyKey, requestHash, secondClaim, secondClaim.minus(Duration.ofDays(1)), secondClaim.plusSeconds(30)), Matchers.is(true));
+
+		assertThat(idempotencyKeyJdbcRepository.complete(idempotencyKey, firstClaim, 201, "{}"), Matchers.is(false));
+		idempotencyKeyJdbcRepository.release(idempotencyKey, firstClaim);
+		assertThat(idempotencyKeyJdbcRepository.find(idempotencyKey).orElseThrow().statusCode(), Matchers.nullValue());
+		assertThat(idempotencyKeyJdbcRepository.complete(idempotencyKey, secondClaim, 201, "{}"), Matchers.is(true));
+		assertThat(idempotencyKeyJdbcRepository.find(idempotencyKey).orElseThrow().statusCode(), Matchers.is(201));
+	}
+
+	@Test
+	void shouldPlaceOneOrderForConcurrentRequestsWithSameIdempotencyKey() throws Exception {
+		String submitOrderJson = """
+                {
+                     "lines": [
+                          {
+                               "skuCode": "idempotent_burst",
+                               "price": 100,
+                               "quantity": 1
+                          }
+                     ]
+                }
+                """;
+		InventoryClientStub.stubInventoryBatchReduceCall("idempotent_burst", 1, 500);
+		String idempotencyKey = UUID.randomUUID().toString();
+
+		List<Future<ExtractableResponse<Response>>> responses = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; i < 10; i++) {
+				responses.add(executor.submit(() -> RestAssured.given()
+						.contentType("application/json")
+						.header("Idempotency-Key", idempotencyKey)
+						.body(submitOrderJson)
+						.when()
+						.post("/api/order")
+						.then()
+						.extract()));
+			}
+		}
+
+		String orderNumber = responses.get(0).get().path("orderNumber");
+		for (Future<ExtractableResponse<Response>> response : responses) {
+			assertThat(response.get().statusCode(), Matchers.is(201));
+			assertThat(response.get().path("orderNumber"), Matchers.is(orderNumber));
+		}
+		RestAssured.given()
+				.queryParam("skuCode", "idempotent_burst")
+				.when()
+				.get("/api/order")
+				.then()
+				.statusCode(200)
+				.body("$.size()", Matchers.is(1));
+		assertThat(findAll(postRequestedFor(urlPathEqualTo("/api/inventory/reduce/batch"))
+				.withQueryParam("requestId", equalTo(orderNumber))).size(), Matchers.is(1));
+	}
+
 	@Test
 	void shouldGetAllOrders() {
 		RestAssured.given()
@@ -64,4 +331,228 @@ class OrderServiceApplicationTests {
 				.statusCode(200)
 				.body("$.size()", Matchers.greaterThan(0));
 	}
+
+	@Test
+	void shouldClampPageSizeToAtLeastOneOrder() {
+		InventoryClientStub.stubInventoryBatchReduceCall("page_clamp", 1);
+		for (int i = 0; i < 2; i++) {
+			RestAssured.given()
+					.contentType("application/json")
+					.body("{\"lines\": [{\"skuCode\": \"page_clamp\", \"price\": 10, \"quantity\": 1}]}")
+					.when()
+					.post("/api/order")
+					.then()
+					.statusCode(201);
+		}
+
+		for (int limit : new int[]{-1, 0}) {
+			RestAssured.given()
+					.queryParam("skuCode", "page_clamp")
+					.queryParam("limit", limit)
+					.when()
+					.get("/api/order")
+					.then()
+					.statusCode(200)
+					.body("$.size()", Matchers.is(1));
+		}
+	}
+
+	@Test
+	void shouldListOrdersFilteredBySkuCode() {
+		String submitOrderJson = """
+                {
+                     "lines": [
+                          {
+                               "skuCode": "pixel_9",
+                               "price": 100,
+                               "quantity": 1
+                          }
+                     ]
+                }
+                """;
+		InventoryClientStub.stubInventoryBatchReduceCall("pixel_9", 1);
+
+		String orderNumber = RestAssured.given()
+				.contentType("application/json")
+				.body(submitOrderJson)
+				.when()
+				.post("/api/order")
+				.then()
+				.statusCode(201)
+				.extract()
+				.path("orderNumber");
+
+		RestAssured.given()
+				.queryParam("skuCode", "pixel_9")
+				.queryParam("limit", 10)
+				.when()
+				.get("/api/order")
+				.then()
+				.log().all()
+				.statusCode(200)
+				.body("$.size()", Matchers.is(1))
+				.body("[0].orderNumber", Matchers.is(orderNumber))
+				.body("[0].lineCount", Matchers.is(1));
+	}
+
+	@Test
+	void shouldBulkImportOrders() {
+		InventoryClientStub.stubInventoryBatchReduceCall("bulk_sku", 1);
+
+		RestAssured.given()
+				.contentType("application/x-ndjson")
+				.body("""
+						{"lines": [{"skuCode": "bulk_sku", "price": 10, "quantity": 1}]}
+						{"lines": []}
+						{"lines": [{"skuCode": "bulk_sku", "price": 10, "quantity": 1}]}
+						""")
+				.when()
+				.post("/api/order/bulk")
+				.then()
+				.log().all()
+				.statusCode(200)
+				.body("linesRead", Matchers.is(3))
+				.body("ordersImported", Matchers.is(2))
+				.body("failedLines", Matchers.is(1))
+				.body("errors[0].lineNumber", Matchers.is(2));
+
+		RestAssured.given()
+				.queryParam("skuCode", "bulk_sku")
+				.when()
+				.get("/api/order")
+				.then()
+				.statusCode(200)
+				.body("$.size()", Matchers.is(2));
+	}
+
+	@Test
+	void shouldCountPlacedOrdersInSalesStats() {
+		String submitOrderJson = """
+                {
+                     "lines": [
+                          {
+                               "skuCode": "stats_sku",
+                               "price": 50,
+                               "quantity": 2
+                          }
+                     ]
+                }
+                """;
+		InventoryClientStub.stubInventoryBatchReduceCall("stats_sku", 2);
+
+		RestAssured.given()
+				.contentType("application/json")
+				.body(submitOrderJson)
+				.when()
+				.post("/api/order")
+				.then()
+				.statusCode(201)
+				.body("status", Matchers.is("PLACED"));
+
+		RestAssured.given()
+				.queryParam("skuCode", "stats_sku")
+				.queryParam("granularity", "DAY")
+				.when()
+				.get("/api/order/stats")
+				.then()
+				.log().all()
+				.statusCode(200)
+				.body("$.size()", Matchers.is(1))
+				.body("[0].units", Matchers.is(2))
+				.body("[0].orderCount", Matchers.is(1));
+	}
+
+	@Test
+	void shouldExportOrdersAsCsv() {
+		InventoryClientStub.stubInventoryBatchReduceCall("export_sku", 1);
+		RestAssured.given()
+				.contentType("application/json")
+				.body("{\"lines\": [{\"skuCode\": \"export_sku\", \"price\": 10, \"quantity\": 1}]}")
+				.when()
+				.post("/api/order")
+				.then()
+				.statusCode(201);
+
+		String csv = RestAssured.given()
+				.queryParam("format", "CSV")
+				.queryParam("gzip", true)
+				.when()
+				.get("/api/order/export")
+				.then()
+				.statusCode(200)
+				.header("Content-Encoding", "gzip")
+				.extract()
+				.asString();
+		assertThat(csv, Matchers.startsWith("orderId,orderNumber,status,createdAt,lineId,skuCode,price,quantity"));
+		assertThat(csv, Matchers.containsString(",export_sku,10.00,1"));
+	}
+
+	@Test
+	void shouldCoalesceConcurrentStockChecks() throws Exception {
+		InventoryClientStub.stubInventoryBatchStockCall("coalesce_sku", 10);
+
+		List<Future<Boolean>> checks = new ArrayList<>();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int quantity = 1; quantity <= 20; quantity++) {
+				int requested = quantity;
+				checks.add(executor.submit(() -> RestAssured.given()
+						.queryParam("skuCode", "coalesce_sku")
+						.queryParam("quantity", requested)
+						.when()
+						.get("/api/order/stock")
+						.then()
+						.statusCode(200)
+						.extract()
+						.as(Boolean.class)));
+			}
+		}
+		for (int i = 0; i < checks.size(); i++) {
+			assertThat(checks.get(i).get(), Matchers.is(i + 1 <= 10));
+		}
+		assertThat(findAll(postRequestedFor(urlPathEqualTo("/api/inventory/stock/batch"))).size(), Matchers.lessThan(checks.size()));
+
+		RestAssured.given()
+				.queryParam("skuCode", "coalesce_sku")
+				.queryParam("quantity", 0)
+				.when()
+				.get("/api/order/stock")
+				.then()
+				.statusCode(400);
+	}
+
+	@Test
+	void shouldRecordInventoryClientMetrics() {
+		InventoryClientStub.stubInventoryBatchReduceCall("metrics_sku", 1);
+		RestAssured.given()
+				.contentType("application/json")
+				.body("{\"lines\": [{\"skuCode\": \"metrics_sku\", \"price\": 10, \"quantity\": 1}]}")
+				.when()
+				.post("/api/order")
+				.then()
+				.statusCode(201);
+
+		assertThat(meterRegistry.getMeters().stream()
+				.filter(meter -> meter.getId().getName().startsWith("httpcomponents.httpclient.pool."))
+				.anyMatch(meter -> "inventory".equals(meter.getId().getTag("httpclient"))), Matchers.is(true));
+		assertThat(meterRegistry.get("inventory.client.pool.lease").timer().count(), Matchers.greaterThan(0L));
+		assertThat(meterRegistry.find("http.client.requests").timers().stream()
+				.filter(timer -> timer.getId().getTag("uri") != null && timer.getId().getTag("uri").contains("/api/inventory/reduce/batch"))
+				.mapToLong(Timer::count)
+				.sum(), Matchers.greaterThan(0L));
+	}
+
+	private String awaitFinalStatus(String orderNumber) throws InterruptedException {
+		String status = "PENDING";
+		for (int attempt = 0; attempt < 50 && status.equals("PENDING"); attempt++) {
+			Thread.sleep(100);
+			status = RestAssured.given()
+					.when()
+					.get("/api/order/" + orderNumber + "/status")
+					.then()
+					.statusCode(200)
+					.extract()
+					.path("status");
+		}
+		return status;
+	}
 }
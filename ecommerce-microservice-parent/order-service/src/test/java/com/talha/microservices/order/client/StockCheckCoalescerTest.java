@@ -0,0 +1,92 @@
+package com.talha.microservices.order.client;
+
+import com.talha.microservices.order.dto.StockLineResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockCheckCoalescerTest {
+
+	private final InventoryClient inventoryClient = mock(InventoryClient.class);
+	private final CountDownLatch released = new CountDownLatch(1);
+	private StockCheckCoalescer stockCheckCoalescer;
+
+	@AfterEach
+	void tearDown() {
+		released.countDown();
+		stockCheckCoalescer.shutdown();
+	}
+
+	@Test
+	void shouldGiveUpWaitingAfterTimeout() {
+		stockCheckCoalescer = coalescer(Duration.ofMillis(1), Duration.ofMillis(200));
+		when(inventoryClient.checkStock(anyList())).thenAnswer(invocation -> {
+			released.await();
+			return List.of(new StockLineResponse("slow_sku", 1, 10, true));
+		});
+
+		IllegalStateException failure = assertThrows(IllegalStateException.class, () -> stockCheckCoalescer.isInStock("slow_sku", 1));
+		assertThat(failure.getMessage().contains("timed out"), is(true));
+	}
+
+	@Test
+	void shouldFailChecksAndForgetThemWhenTheCallThrowsAnError() {
+		stockCheckCoalescer = coalescer(Duration.ofMillis(1), Duration.ofSeconds(5));
+		when(inventoryClient.checkStock(anyList()))
+				.thenThrow(new StackOverflowError())
+				.thenReturn(List.of(new StockLineResponse("error_sku", 1, 10, true)));
+
+		IllegalStateException failure = assertThrows(IllegalStateException.class, () -> stockCheckCoalescer.isInStock("error_sku", 1));
+		assertThat(failure.getCause(), instanceOf(StackOverflowError.class));
+		assertThat(stockCheckCoalescer.isInStock("error_sku", 1), is(true));
+	}
+
+	@Test
+	void shouldFailQueuedChecksOnShutdown() throws InterruptedException {
+		stockCheckCoalescer = coalescer(Duration.ofMinutes(1), Duration.ofSeconds(5));
+		CompletableFuture<Integer> queued = stockCheckCoalescer.availableQuantity("queued_sku");
+
+		stockCheckCoalescer.shutdown();
+
+		ExecutionException failure = assertThrows(ExecutionException.class, queued::get);
+		assertThat(failure.getCause(), instanceOf(IllegalStateException.class));
+		assertThrows(RejectedExecutionException.class, () -> stockCheckCoalescer.isInStock("queued_sku", 1));
+	}
+
+	@Test
+	void shouldFailInFlightChecksOnShutdown() throws InterruptedException {
+		stockCheckCoalescer = coalescer(Duration.ofMillis(1), Duration.ofSeconds(5));
+		CountDownLatch sent = new CountDownLatch(1);
+		when(inventoryClient.checkStock(anyList())).thenAnswer(invocation -> {
+			sent.countDown();
+			released.await();
+			return List.of(new StockLineResponse("in_flight_sku", 1, 10, true));
+		});
+		CompletableFuture<Integer> inFlight = stockCheckCoalescer.availableQuantity("in_flight_sku");
+		sent.await();
+
+		stockCheckCoalescer.shutdown();
+
+		ExecutionException failure = assertThrows(ExecutionException.class, inFlight::get);
+		assertThat(failure.getCause(), instanceOf(IllegalStateException.class));
+	}
+
+	private StockCheckCoalescer coalescer(Duration window, Duration timeout) {
+		return new StockCheckCoalescer(inventoryClient, new SimpleMeterRegistry(), false, window, 100, 2, timeout);
+	}
+}
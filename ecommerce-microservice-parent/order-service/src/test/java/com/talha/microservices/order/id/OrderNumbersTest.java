@@ -0,0 +1,88 @@
+package com.talha.microservices.order.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderNumbersTest {
+
+	@Test
+	void shouldRoundTripBytesThroughText() {
+		Random random = new Random(42);
+		List<byte[]> samples = new ArrayList<>(List.of(new byte[OrderNumbers.BYTES], filled((byte) 0xFF)));
+		for (int i = 0; i < 1000; i++) {
+			byte[] bytes = new byte[OrderNumbers.BYTES];
+			random.nextBytes(bytes);
+			samples.add(bytes);
+		}
+
+		for (byte[] bytes : samples) {
+			String text = OrderNumbers.format(bytes);
+			assertThat(text.length(), is(26));
+			assertThat(Arrays.equals(OrderNumbers.parse(text), bytes), is(true));
+			assertThat(Arrays.equals(OrderNumbers.parse(text.toLowerCase()), bytes), is(true));
+		}
+		assertThat(OrderNumbers.format(new byte[OrderNumbers.BYTES]), is("00000000000000000000000000"));
+		assertThat(OrderNumbers.format(filled((byte) 0xFF)), is("7ZZZZZZZZZZZZZZZZZZZZZZZZZ"));
+	}
+
+	@Test
+	void shouldParseLegacyUuidsToTheirBytes() {
+		UUID uuid = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+
+		byte[] bytes = OrderNumbers.parse(uuid.toString());
+
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		assertThat(buffer.getLong(), is(uuid.getMostSignificantBits()));
+		assertThat(buffer.getLong(), is(uuid.getLeastSignificantBits()));
+		assertThat(OrderNumbers.format(bytes), is("0J7S2PFT4V2B9T8NJ2CRA1EG00"));
+		assertThat(Arrays.equals(OrderNumbers.parse("0J7S2PFT4V2B9T8NJ2CRA1EG00"), bytes), is(true));
+	}
+
+	@Test
+	void shouldSortTextInTheOrderOfTheBytes() {
+		Random random = new Random(7);
+		List<byte[]> samples = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			byte[] bytes = new byte[OrderNumbers.BYTES];
+			random.nextBytes(bytes);
+			samples.add(bytes);
+		}
+
+		List<String> byBytes = samples.stream()
+				.sorted(Arrays::compareUnsigned)
+				.map(OrderNumbers::format)
+				.toList();
+		List<String> byText = samples.stream()
+				.map(OrderNumbers::format)
+				.sorted(Comparator.naturalOrder())
+				.toList();
+		assertThat(byText, is(byBytes));
+	}
+
+	@Test
+	void shouldRejectMalformedOrderNumbers() {
+		// Too long, out of the alphabet, and a first character above the 128-bit range
+		for (String text : List.of("", "0J7S2PFT4V2B9T8NJ2CRA1EG000", "0J7S2PFT4V2B9T8NJ2CRA1EGU0", "8ZZZZZZZZZZZZZZZZZZZZZZZZZ",
+				"123e4567-e89b-12d3-a456-42661417400g")) {
+			assertThrows(IllegalArgumentException.class, () -> OrderNumbers.parse(text));
+			assertThat(OrderNumbers.isValid(text), is(false));
+		}
+	}
+
+	private static byte[] filled(byte value) {
+		byte[] bytes = new byte[OrderNumbers.BYTES];
+		Arrays.fill(bytes, value);
+		return bytes;
+	}
+}
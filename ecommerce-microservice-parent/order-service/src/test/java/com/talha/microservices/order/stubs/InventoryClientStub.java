@@ -5,20 +5,46 @@ import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 
 public class InventoryClientStub {
 
-    public static void stubInventoryCall(String skuCode, Integer quantity) {
-        stubFor(get(urlEqualTo("/api/inventory/stock?skuCode=" + skuCode + "&quantity=" + quantity))
-                .willReturn(aResponse()
-                        .withStatus(200)
-                        .withHeader("Content-Type","application/json")
-                        .withBody("true")));
+    public static void stubInventoryBatchReduceCall(String skuCode, Integer quantity) {
+        stubInventoryBatchReduceCall(skuCode, quantity, 0);
     }
 
-    public static void stubInventoryReduceCall(String skuCode, Integer quantity) {
-        stubFor(post(urlEqualTo("/api/inventory/reduce?skuCode=" + skuCode + "&quantity=" + quantity))
+    public static void stubInventoryBatchReduceCall(String skuCode, Integer quantity, Integer delayMillis) {
+        stubFor(post(urlPathEqualTo("/api/inventory/reduce/batch"))
+                .withQueryParam("requestId", matching(".+"))
+                .withRequestBody(matchingJsonPath("$[?(@.skuCode == '" + skuCode + "' && @.quantity == " + quantity + ")]"))
                 .willReturn(aResponse()
                     .withStatus(200)
                     .withHeader("Content-Type","application/json")
-                    .withBody("true")));
+                    .withBody("[{\"skuCode\":\"" + skuCode + "\",\"quantity\":" + quantity + ",\"availableQuantity\":0,\"inStock\":true}]")
+                    .withFixedDelay(delayMillis)));
+    }
+
+    public static void stubInventoryBatchReduceOutOfStockCall(String skuCode, Integer quantity, Integer availableQuantity) {
+        stubFor(post(urlPathEqualTo("/api/inventory/reduce/batch"))
+                .withQueryParam("requestId", matching(".+"))
+                .withRequestBody(matchingJsonPath("$[?(@.skuCode == '" + skuCode + "' && @.quantity == " + quantity + ")]"))
+                .willReturn(aResponse()
+                    .withStatus(400)
+                    .withHeader("Content-Type","application/json")
+                    .withBody("[{\"skuCode\":\"" + skuCode + "\",\"quantity\":" + quantity + ",\"availableQuantity\":" + availableQuantity + ",\"inStock\":false}]")));
+    }
 
+    public static void stubInventoryBatchReduceServerError(String skuCode, Integer quantity) {
+        stubFor(post(urlPathEqualTo("/api/inventory/reduce/batch"))
+                .withQueryParam("requestId", matching(".+"))
+                .withRequestBody(matchingJsonPath("$[?(@.skuCode == '" + skuCode + "' && @.quantity == " + quantity + ")]"))
+                .willReturn(aResponse()
+                    .withStatus(503)));
+    }
+
+    public static void stubInventoryBatchStockCall(String skuCode, Integer availableQuantity) {
+        stubFor(post(urlPathEqualTo("/api/inventory/stock/batch"))
+                .withRequestBody(matchingJsonPath("$[?(@.skuCode == '" + skuCode + "')]"))
+                .willReturn(aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type","application/json")
+                    .withBody("[{\"skuCode\":\"" + skuCode + "\",\"quantity\":1,\"availableQuantity\":" + availableQuantity + ",\"inStock\":true}]")
+                    .withFixedDelay(200)));
     }
 }